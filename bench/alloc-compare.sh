@@ -0,0 +1,36 @@
+#!/bin/sh
+# Bytes allocated per operation (gc.alloc.rate.norm) by every QueryBenchmark, for a base
+# revision next to the working tree.
+#
+#   bench/alloc-compare.sh [base-revision] [extra JMH options...]
+#
+# The base revision defaults to HEAD; the default options measure the re-reading engine on
+# local.csv, which is where the row model matters most.
+set -e
+base=${1:-HEAD}
+[ $# -gt 0 ] && shift
+root=$(git rev-parse --show-toplevel)
+work=$(mktemp -d)
+trap 'git -C "$root" worktree remove --force "$work/base" >/dev/null 2>&1; rm -rf "$work"' EXIT
+git -C "$root" worktree add --detach "$work/base" "$base" >/dev/null 2>&1
+
+measure() {
+    dir=$1 out=$2
+    shift 2
+    (cd "$dir/bench" && mvn -B -q package && java -jar target/benchmarks.jar QueryBenchmark \
+        -p engine=rereading -p scale=1 -bm avgt -wi 2 -w 1 -i 3 -r 1 -f 1 "$@" -rf csv -rff "$out" >/dev/null)
+}
+measure "$work/base" "$work/before.csv" "$@"
+measure "$root" "$work/after.csv" "$@"
+
+awk -F, '
+    FNR == 1 { next }
+    $1 ~ /gc.alloc.rate.norm/ {
+        name = $1; gsub(/"|bench\.QueryBenchmark\.|:gc.alloc.rate.norm/, "", name)
+        key = name " (" $8 ", " $9 ")"; gsub(/"/, "", key)
+        if (FILENAME ~ /before/) { before[key] = $5; order[++n] = key } else { after[key] = $5 }
+    }
+    END {
+        printf "%-48s %14s %14s\n", "benchmark (engine, scale)", "before B/op", "after B/op"
+        for (i = 1; i <= n; i++) printf "%-48s %14.0f %14.0f\n", order[i], before[order[i]], after[order[i]]
+    }' "$work/before.csv" "$work/after.csv"
@@ -0,0 +1,171 @@
+package bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Typed access to the analyzer API. JMH requires benchmarks to live in a named package, which
+ * cannot import the analyzer's default-package classes, so calls go through constant method
+ * handles that the JIT inlines like direct calls.
+ */
+final class Analyzers {
+
+    private static final MethodHandle NEW;
+    private static final MethodHandle MATERIALIZED;
+    private static final MethodHandle FROM_SNAPSHOT;
+    private static final MethodHandle WRITE_SNAPSHOT;
+    private static final MethodHandle PTCP_BY_INST;
+    private static final MethodHandle PTCP_BY_INST_AND_SUBJECT;
+    private static final MethodHandle COURSE_LIST_OF_INSTRUCTOR;
+    private static final MethodHandle GET_COURSES;
+    private static final MethodHandle SEARCH_COURSES;
+    private static final MethodHandle RECOMMEND_COURSES;
+    private static final MethodHandle RECOMMEND_BATCH;
+    private static final MethodHandle MEMOIZE_RECOMMENDATIONS;
+    private static final MethodHandle SCALE;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> analyzer = Class.forName("OnlineCoursesAnalyzer");
+            NEW = lookup.findConstructor(analyzer, MethodType.methodType(void.class, String.class))
+                .asType(MethodType.methodType(Object.class, String.class));
+            MATERIALIZED = lookup.findStatic(analyzer, "materialized", MethodType.methodType(analyzer, String.class))
+                .asType(MethodType.methodType(Object.class, String.class));
+            FROM_SNAPSHOT = lookup.findStatic(analyzer, "fromSnapshot", MethodType.methodType(analyzer, String.class))
+                .asType(MethodType.methodType(Object.class, String.class));
+            WRITE_SNAPSHOT = virtual(lookup, analyzer, "writeSnapshot", void.class, String.class);
+            PTCP_BY_INST = virtual(lookup, analyzer, "getPtcpCountByInst", Map.class);
+            PTCP_BY_INST_AND_SUBJECT = virtual(lookup, analyzer, "getPtcpCountByInstAndSubject", Map.class);
+            COURSE_LIST_OF_INSTRUCTOR = virtual(lookup, analyzer, "getCourseListOfInstructor", Map.class);
+            GET_COURSES = virtual(lookup, analyzer, "getCourses", List.class, int.class, String.class);
+            SEARCH_COURSES = virtual(lookup, analyzer, "searchCourses", List.class, String.class, double.class,
+                double.class);
+            RECOMMEND_COURSES = virtual(lookup, analyzer, "recommendCourses", List.class, int.class, int.class,
+                int.class);
+            RECOMMEND_BATCH = virtual(lookup, analyzer, "recommendCourses", List.class, int[].class, int[].class,
+                int[].class);
+            MEMOIZE_RECOMMENDATIONS = virtual(lookup, analyzer, "memoizeRecommendations", void.class,
+                boolean.class);
+            SCALE = lookup.findStatic(Class.forName("CourseCsvGenerator"), "scale", MethodType.methodType(
+                void.class, java.nio.file.Path.class, java.nio.file.Path.class, int.class, long.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private Analyzers() {
+    }
+
+    private static MethodHandle virtual(MethodHandles.Lookup lookup, Class<?> analyzer, String name,
+        Class<?> returnType, Class<?>... parameters) throws ReflectiveOperationException {
+        MethodHandle handle = lookup.findVirtual(analyzer, name, MethodType.methodType(returnType, parameters));
+        return handle.asType(handle.type().changeParameterType(0, Object.class));
+    }
+
+    static Object open(String engine, String csvFile, String snapshotFile) {
+        try {
+            return switch (engine) {
+                case "rereading" -> (Object) NEW.invokeExact(csvFile);
+                case "materialized" -> (Object) MATERIALIZED.invokeExact(csvFile);
+                case "snapshot" -> (Object) FROM_SNAPSHOT.invokeExact(snapshotFile);
+                default -> throw new IllegalArgumentException(engine);
+            };
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static void writeSnapshot(Object analyzer, String snapshotFile) {
+        try {
+            WRITE_SNAPSHOT.invokeExact(analyzer, snapshotFile);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static Map<?, ?> ptcpCountByInst(Object analyzer) {
+        try {
+            return (Map<?, ?>) PTCP_BY_INST.invokeExact(analyzer);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static Map<?, ?> ptcpCountByInstAndSubject(Object analyzer) {
+        try {
+            return (Map<?, ?>) PTCP_BY_INST_AND_SUBJECT.invokeExact(analyzer);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static Map<?, ?> courseListOfInstructor(Object analyzer) {
+        try {
+            return (Map<?, ?>) COURSE_LIST_OF_INSTRUCTOR.invokeExact(analyzer);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static List<?> courses(Object analyzer, int topK, String by) {
+        try {
+            return (List<?>) GET_COURSES.invokeExact(analyzer, topK, by);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static List<?> searchCourses(Object analyzer, String subject, double percentAudited, double totalCourseHours) {
+        try {
+            return (List<?>) SEARCH_COURSES.invokeExact(analyzer, subject, percentAudited, totalCourseHours);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static List<?> recommendCourses(Object analyzer, int age, int gender, int isBachelorOrHigher) {
+        try {
+            return (List<?>) RECOMMEND_COURSES.invokeExact(analyzer, age, gender, isBachelorOrHigher);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static List<?> recommendCourses(Object analyzer, int[] ages, int[] genders, int[] isBachelorOrHigher) {
+        try {
+            return (List<?>) RECOMMEND_BATCH.invokeExact(analyzer, ages, genders, isBachelorOrHigher);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static void memoizeRecommendations(Object analyzer, boolean enabled) {
+        try {
+            MEMOIZE_RECOMMENDATIONS.invokeExact(analyzer, enabled);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static void scale(java.nio.file.Path template, java.nio.file.Path out, int factor, long seed) {
+        try {
+            SCALE.invokeExact(template, out, factor, seed);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable t) {
+        if (t instanceof RuntimeException e) {
+            throw e;
+        }
+        if (t instanceof Error e) {
+            throw e;
+        }
+        throw new RuntimeException(t);
+    }
+}
@@ -0,0 +1,66 @@
+package bench;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Resolves the benchmark inputs: {@code local.csv} for scale 1 and seeded copies of it scaled to
+ * 10x, 100x and 1000x the rows. Generated files are cached under {@code bench.data} so forks and
+ * reruns measure identical data.
+ */
+final class Datasets {
+
+    static final long SEED = 209L;
+
+    private Datasets() {
+    }
+
+    static Path template() {
+        String configured = System.getProperty("bench.csv");
+        if (configured != null) {
+            return Paths.get(configured);
+        }
+        for (String candidate : new String[] {"resources/local.csv", "../resources/local.csv"}) {
+            Path path = Paths.get(candidate);
+            if (Files.isRegularFile(path)) {
+                return path;
+            }
+        }
+        throw new IllegalStateException("local.csv not found; pass -Dbench.csv=<path>");
+    }
+
+    static synchronized Path csv(int scale) {
+        Path template = template();
+        if (scale == 1) {
+            return template;
+        }
+        Path out = dataDir().resolve("courses-x" + scale + ".csv");
+        try {
+            if (!Files.isRegularFile(out)) {
+                Files.createDirectories(out.getParent());
+                Path partial = Files.createTempFile(out.getParent(), "courses-x" + scale, ".part");
+                Analyzers.scale(template, partial, scale, SEED);
+                Files.move(partial, out);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out;
+    }
+
+    static synchronized Path snapshot(int scale) {
+        Path out = dataDir().resolve("courses-x" + scale + ".snapshot");
+        if (!Files.isRegularFile(out)) {
+            Analyzers.writeSnapshot(Analyzers.open("materialized", csv(scale).toString(), null),
+                out.toString());
+        }
+        return out;
+    }
+
+    private static Path dataDir() {
+        return Paths.get(System.getProperty("bench.data", "target/bench-data"));
+    }
+}
@@ -0,0 +1,98 @@
+package bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The scalar and Vector API implementations of the numeric kernels on columns of {@code size}
+ * doubles: the range filter of {@code searchCourses} and the distances of {@code recommendCourses}.
+ * The vector width follows the CPU; add {@code -jvmArgsAppend -XX:UseAVX=2} to measure AVX2 on an
+ * AVX-512 machine.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsPrepend = {"--add-modules", "jdk.incubator.vector"})
+public class KernelBenchmark {
+
+    private static final MethodHandle LOAD;
+    private static final MethodHandle AT_MOST;
+    private static final MethodHandle SQUARED_DISTANCES;
+
+    static {
+        try {
+            Class<?> kernels = Class.forName("NumericKernels");
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(kernels, MethodHandles.lookup());
+            LOAD = lookup.findStatic(kernels, "load", MethodType.methodType(kernels, String.class))
+                .asType(MethodType.methodType(Object.class, String.class));
+            AT_MOST = lookup.findVirtual(kernels, "atMost", MethodType.methodType(void.class, double[].class,
+                int.class, int.class, double.class, long[].class)).asType(MethodType.methodType(void.class,
+                Object.class, double[].class, int.class, int.class, double.class, long[].class));
+            SQUARED_DISTANCES = lookup.findVirtual(kernels, "squaredDistances", MethodType.methodType(void.class,
+                double[].class, double[].class, double[].class, int.class, int.class, double.class, double.class,
+                double.class, double[].class)).asType(MethodType.methodType(void.class, Object.class,
+                double[].class, double[].class, double[].class, int.class, int.class, double.class, double.class,
+                double.class, double[].class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Param({"scalar", "vector"})
+    public String kernels;
+
+    @Param({"1024", "65536", "1048576"})
+    public int size;
+
+    private Object implementation;
+    private double[] x;
+    private double[] y;
+    private double[] z;
+    private double[] out;
+    private long[] bits;
+
+    @Setup(Level.Trial)
+    public void prepare() throws Throwable {
+        implementation = (Object) LOAD.invokeExact(kernels);
+        Random random = new Random(42);
+        x = new double[size];
+        y = new double[size];
+        z = new double[size];
+        for (int i = 0; i < size; i++) {
+            x[i] = 15 + random.nextDouble() * 30;
+            y[i] = random.nextDouble() * 100;
+            z[i] = random.nextDouble() * 100;
+        }
+        out = new double[size];
+        bits = new long[(size + 63) / 64];
+    }
+
+    @Benchmark
+    public long[] atMost() throws Throwable {
+        AT_MOST.invokeExact(implementation, y, 0, size, 50.0, bits);
+        return bits;
+    }
+
+    @Benchmark
+    public double[] squaredDistances() throws Throwable {
+        SQUARED_DISTANCES.invokeExact(implementation, x, y, z, 0, size, 30.0, 100.0, 100.0, out);
+        return out;
+    }
+}
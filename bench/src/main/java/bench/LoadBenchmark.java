@@ -0,0 +1,46 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Time to turn a dataset into a queryable analyzer. */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class LoadBenchmark {
+
+    /** {@code materialized} parses the CSV; {@code snapshot} reads the binary snapshot of it. */
+    @Param({"materialized", "snapshot"})
+    public String engine;
+
+    @Param({"1", "10", "100", "1000"})
+    public int scale;
+
+    private String csvFile;
+    private String snapshotFile;
+
+    @Setup(Level.Trial)
+    public void prepare() {
+        csvFile = Datasets.csv(scale).toString();
+        snapshotFile = "snapshot".equals(engine) ? Datasets.snapshot(scale).toString() : null;
+    }
+
+    @Benchmark
+    public Object load() {
+        return Analyzers.open(engine, csvFile, snapshotFile);
+    }
+}
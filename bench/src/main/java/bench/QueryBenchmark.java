@@ -0,0 +1,77 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The six analyzer queries with the arguments used by {@code LocalAnalyzerTest}, run against the
+ * original re-reading engine and the materialized one so results can be compared side by side.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsPrepend = {"--add-modules", "jdk.incubator.vector"},
+    jvmArgsAppend = "-Xmx8g")
+public class QueryBenchmark {
+
+    @Param({"rereading", "materialized"})
+    public String engine;
+
+    @Param({"1", "10", "100", "1000"})
+    public int scale;
+
+    private Object analyzer;
+
+    @Setup(Level.Trial)
+    public void prepare() {
+        analyzer = Analyzers.open(engine, Datasets.csv(scale).toString(), null);
+    }
+
+    @Benchmark
+    public Object ptcpCountByInst() {
+        return Analyzers.ptcpCountByInst(analyzer);
+    }
+
+    @Benchmark
+    public Object ptcpCountByInstAndSubject() {
+        return Analyzers.ptcpCountByInstAndSubject(analyzer);
+    }
+
+    @Benchmark
+    public Object courseListOfInstructor() {
+        return Analyzers.courseListOfInstructor(analyzer);
+    }
+
+    @Benchmark
+    public Object coursesByHours() {
+        return Analyzers.courses(analyzer, 10, "hours");
+    }
+
+    @Benchmark
+    public Object coursesByParticipants() {
+        return Analyzers.courses(analyzer, 15, "participants");
+    }
+
+    @Benchmark
+    public Object searchCourses() {
+        return Analyzers.searchCourses(analyzer, "computer", 20.0, 700);
+    }
+
+    @Benchmark
+    public Object recommendCourses() {
+        return Analyzers.recommendCourses(analyzer, 25, 1, 1);
+    }
+}
@@ -0,0 +1,79 @@
+package bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Recommendations per second for a batch of learner profiles on a materialized analyzer: one
+ * query per profile, one batch call, and one batch call answered from the warm memo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsPrepend = {"--add-modules", "jdk.incubator.vector"},
+    jvmArgsAppend = "-Xmx8g")
+public class RecommendBenchmark {
+
+    private static final int PROFILES = 10_000;
+
+    @Param({"1", "10", "100"})
+    public int scale;
+
+    /** Upper bound of the random ages; the number of distinct profiles is four times this. */
+    @Param({"100", "100000"})
+    public int ages;
+
+    private Object analyzer;
+    private final int[] age = new int[PROFILES];
+    private final int[] gender = new int[PROFILES];
+    private final int[] degree = new int[PROFILES];
+
+    @Setup(Level.Trial)
+    public void prepare() {
+        analyzer = Analyzers.open("materialized", Datasets.csv(scale).toString(), null);
+        Random random = new Random(42);
+        for (int i = 0; i < PROFILES; i++) {
+            age[i] = random.nextInt(ages);
+            gender[i] = random.nextInt(2);
+            degree[i] = random.nextInt(2);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PROFILES)
+    public void single(Blackhole bh) {
+        for (int i = 0; i < PROFILES; i++) {
+            bh.consume(Analyzers.recommendCourses(analyzer, age[i], gender[i], degree[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PROFILES)
+    public Object batch() {
+        Analyzers.memoizeRecommendations(analyzer, false);
+        return Analyzers.recommendCourses(analyzer, age, gender, degree);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PROFILES)
+    public Object batchMemoized() {
+        Analyzers.memoizeRecommendations(analyzer, true);
+        return Analyzers.recommendCourses(analyzer, age, gender, degree);
+    }
+}
@@ -0,0 +1,40 @@
+/**
+ * Receives timings from an {@link OnlineCoursesAnalyzer}; see
+ * {@link OnlineCoursesAnalyzer#setListener(AnalyzerListener)}. Calls come from the thread that
+ * loaded or queried, possibly several at once, so implementations must be thread-safe. An
+ * analyzer without a listener does no measuring at all.
+ */
+public interface AnalyzerListener {
+
+    /** The steps of loading a CSV file into a materialized analyzer. */
+    enum Phase {
+        /** Scanning the mapped file for row boundaries. */
+        READ,
+        /** Tokenizing the rows and parsing their fields into column chunks, per range. */
+        PARSE,
+        /** Merging the chunks and building the aggregates and indexes the queries read. */
+        MATERIALIZE
+    }
+
+    /**
+     * A load phase finished after {@code nanos}. {@code allocatedBytes} is what its threads
+     * allocated, or 0 where the JVM cannot tell.
+     */
+    default void phaseCompleted(Phase phase, long nanos, long allocatedBytes) {
+    }
+
+    /** A load or refresh added {@code rows} rows. */
+    default void rowsLoaded(long rows) {
+    }
+
+    /**
+     * A public query, named after its method, returned after {@code nanos}, having allocated
+     * {@code allocatedBytes} on the calling thread. Cached answers are reported too.
+     */
+    default void queryCompleted(String query, long nanos, long allocatedBytes) {
+    }
+
+    /** A row was rejected as malformed; the load or query then fails with {@code error}. */
+    default void rowRejected(CourseFormatException error) {
+    }
+}
@@ -0,0 +1,121 @@
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * An {@link AnalyzerListener} that keeps counters, total time, allocation and a power-of-two
+ * latency histogram per load phase and per query, plus the rows loaded and rejected. Readable
+ * directly or, once {@link #register(String) registered}, over JMX.
+ */
+public final class AnalyzerMetrics implements AnalyzerListener, AnalyzerMetricsMXBean {
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final LongAdder rowsLoaded = new LongAdder();
+    private final LongAdder rowsRejected = new LongAdder();
+
+    @Override
+    public void phaseCompleted(Phase phase, long nanos, long allocatedBytes) {
+        timer(phase.name()).record(nanos, allocatedBytes);
+    }
+
+    @Override
+    public void rowsLoaded(long rows) {
+        rowsLoaded.add(rows);
+    }
+
+    @Override
+    public void queryCompleted(String query, long nanos, long allocatedBytes) {
+        timer(query).record(nanos, allocatedBytes);
+    }
+
+    @Override
+    public void rowRejected(CourseFormatException error) {
+        rowsRejected.increment();
+    }
+
+    /** Registers these metrics with the platform MBean server under the returned name. */
+    public ObjectName register(String name) {
+        try {
+            ObjectName objectName = new ObjectName("OnlineCoursesAnalyzer:type=AnalyzerMetrics,name="
+                + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            return objectName;
+        } catch (JMException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public Map<String, Long> getCounts() {
+        return snapshot(t -> t.count.sum());
+    }
+
+    @Override
+    public Map<String, Long> getTotalNanos() {
+        return snapshot(t -> t.nanos.sum());
+    }
+
+    @Override
+    public Map<String, Long> getAllocatedBytes() {
+        return snapshot(t -> t.allocated.sum());
+    }
+
+    @Override
+    public Map<String, long[]> getLatencyHistograms() {
+        return snapshot(t -> {
+            long[] buckets = new long[t.histogram.length()];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = t.histogram.get(i);
+            }
+            return buckets;
+        });
+    }
+
+    @Override
+    public long getRowsLoaded() {
+        return rowsLoaded.sum();
+    }
+
+    @Override
+    public long getRowsRejected() {
+        return rowsRejected.sum();
+    }
+
+    @Override
+    public void reset() {
+        timers.clear();
+        rowsLoaded.reset();
+        rowsRejected.reset();
+    }
+
+    private Timer timer(String name) {
+        return timers.computeIfAbsent(name, k -> new Timer());
+    }
+
+    private <V> Map<String, V> snapshot(Function<Timer, V> value) {
+        Map<String, V> result = new TreeMap<>();
+        timers.forEach((name, timer) -> result.put(name, value.apply(timer)));
+        return result;
+    }
+
+    private static final class Timer {
+
+        final LongAdder count = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final LongAdder allocated = new LongAdder();
+        final AtomicLongArray histogram = new AtomicLongArray(64);
+
+        void record(long nanos, long allocatedBytes) {
+            count.increment();
+            this.nanos.add(nanos);
+            allocated.add(allocatedBytes);
+            histogram.incrementAndGet(63 - Long.numberOfLeadingZeros(Math.max(1, nanos)));
+        }
+    }
+}
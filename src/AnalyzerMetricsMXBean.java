@@ -0,0 +1,23 @@
+import java.util.Map;
+
+/**
+ * JMX view of an {@link AnalyzerMetrics}. Maps are keyed by load phase ({@code READ},
+ * {@code PARSE}, {@code MATERIALIZE}) and by query method name.
+ */
+public interface AnalyzerMetricsMXBean {
+
+    Map<String, Long> getCounts();
+
+    Map<String, Long> getTotalNanos();
+
+    Map<String, Long> getAllocatedBytes();
+
+    /** Bucket {@code i} counts the latencies of at least {@code 2^i} and less than {@code 2^(i+1)} ns. */
+    Map<String, long[]> getLatencyHistograms();
+
+    long getRowsLoaded();
+
+    long getRowsRejected();
+
+    void reset();
+}
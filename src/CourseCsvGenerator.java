@@ -0,0 +1,211 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Writes synthetic course CSVs in the schema of {@code resources/local.csv}, either as scaled
+ * copies of a template or generated from scratch at any row count. The output is fully
+ * determined by the arguments, so benchmarks and tests can regenerate identical data.
+ */
+public final class CourseCsvGenerator {
+
+    /** The header of {@code resources/local.csv}, verbatim. */
+    private static final String HEADER = "Institution,CourseBF Number,Launch Date,CourseBF Title,Instructors,"
+        + "CourseBF Subject,Year,Honor Code Certificates,Participants (CourseBF Content Accessed),"
+        + "Audited (> 50% CourseBF Content Accessed),Certified,% Audited,% Certified,"
+        + "% Certified of > 50% CourseBF Content Accessed,% Played Video,% Posted in Forum,"
+        + "% Grade Higher Than Zero,Total CourseBF Hours (Thousands),Median Hours for Certification,Median Age,"
+        + "% Male,% Female,% Bachelor's Degree or Higher";
+    private static final int FIRST_LAUNCH_DAY = (int) LocalDate.of(2012, 7, 1).toEpochDay();
+    private static final int LAUNCH_DAYS = 3 * 365;
+    private static final String[] INSTITUTIONS = {"MITx", "HarvardX", "BerkeleyX", "StanfordX", "TsinghuaX",
+        "SUSTechX", "ETHx", "DelftX", "KyotoUx", "HKUx", "UQx", "McGillX"};
+    private static final String[] SUBJECTS = {"Computer Science",
+        "Science, Technology, Engineering, and Mathematics", "Humanities, History, Design, Religion, and Education",
+        "Government, Health, and Social Science", "Economics and Finance", "Art and Music", "Languages"};
+    private static final String[] TITLE_WORDS = {"Introduction", "Advanced", "Foundations", "Principles",
+        "Computing", "Biology", "Circuits", "Economics", "History", "Statistics", "Poetry", "Justice",
+        "Chemistry", "Design", "Data", "Health", "Energy", "Probability", "Ethics", "Networks"};
+    private static final String[] FIRST_NAMES = {"Anant", "Eric", "Lorna", "Gregory", "Michael", "Sarah", "Wei",
+        "Yuan", "Daniel", "Maria", "Kenji", "Amara"};
+    private static final String[] LAST_NAMES = {"Agarwal", "Lander", "Gibson", "Nagy", "Sandel", "Chen", "Li",
+        "Garcia", "Smith", "Okafor", "Tanaka", "Novak", "Rossi"};
+
+    private CourseCsvGenerator() {
+    }
+
+    /**
+     * Writes {@code factor} copies of every row of {@code template}. The first copy is verbatim;
+     * later copies get their own course numbers, shifted launch dates and jittered numbers.
+     */
+    public static void scale(Path template, Path out, int factor, long seed) throws IOException {
+        List<String> lines = Files.readAllLines(template, StandardCharsets.UTF_8);
+        Random random = new Random(seed);
+        CourseTokenizer fields = new CourseTokenizer();
+        try (BufferedWriter writer = Files.newBufferedWriter(out, StandardCharsets.UTF_8)) {
+            writer.write(lines.get(0));
+            writer.write('\n');
+            for (int copy = 0; copy < factor; copy++) {
+                for (String line : lines.subList(1, lines.size())) {
+                    if (copy == 0) {
+                        writer.write(line);
+                    } else {
+                        writeCopy(writer, fields.next(line), copy, random);
+                    }
+                    writer.write('\n');
+                }
+            }
+        }
+    }
+
+    private static void writeCopy(BufferedWriter writer, CourseTokenizer fields, int copy, Random random)
+        throws IOException {
+        StringBuilder row = new StringBuilder(256);
+        row.append(fields.raw(0)).append(',');
+        row.append(fields.raw(1)).append('.').append(copy).append(',');
+        appendDate(row, fields.epochDayField(2) + 7 * copy + random.nextInt(7));
+        row.append(',');
+        appendText(row, fields.unquoted(3).trim());
+        row.append(',');
+        appendText(row, fields.unquoted(4));
+        row.append(',');
+        appendText(row, fields.unquoted(5));
+        row.append(',').append(fields.intField(6));
+        for (int i = 7; i <= 10; i++) {
+            row.append(',').append(Math.max(0, Math.round(fields.intField(i) * jitter(random))));
+        }
+        for (int i = 11; i < CourseTokenizer.COLUMNS; i++) {
+            double value = fields.doubleField(i) * jitter(random);
+            if (i != 17 && i != 18 && i != 19) {
+                value = Math.min(100, value);
+            }
+            row.append(',').append(Math.round(value * 100) / 100.0);
+        }
+        writer.append(row);
+    }
+
+    /**
+     * Writes a header and {@code rows} synthetic rows. About one course number in three is
+     * offered again on later launch dates; institutions, subjects and course popularity are
+     * skewed so that a few dominate, and a fifth of the courses have several instructors, so
+     * quoted fields with commas are common. Every value is within the ranges of the real data.
+     */
+    public static void generate(Path out, long rows, long seed) throws IOException {
+        int courses = (int) Math.max(1, Math.min(Integer.MAX_VALUE, rows / 3));
+        int instructors = Math.max(4, courses / 2);
+        Random random = new Random(seed);
+        try (BufferedWriter writer = Files.newBufferedWriter(out, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.write('\n');
+            StringBuilder row = new StringBuilder(256);
+            for (long r = 0; r < rows; r++) {
+                // Quadratic skew: low course ids are offered far more often than high ones.
+                int course = (int) (courses * Math.pow(random.nextDouble(), 2));
+                row.setLength(0);
+                appendRow(row, course, instructors, seed, random);
+                writer.append(row).append('\n');
+            }
+        }
+    }
+
+    private static void appendRow(StringBuilder row, int course, int instructorCount, long seed, Random random) {
+        // Everything that identifies a course comes from its own seed, so all its offerings agree.
+        Random fixed = new Random(seed * 1_000_003L + course);
+        String institution = INSTITUTIONS[skewed(fixed, INSTITUTIONS.length)];
+        row.append(institution).append(',');
+        row.append(institution.charAt(0)).append(course).append('x').append(',');
+        int launchDay = FIRST_LAUNCH_DAY + fixed.nextInt(LAUNCH_DAYS) + random.nextInt(4) * 180;
+        appendDate(row, launchDay);
+        row.append(',');
+        row.append(TITLE_WORDS[fixed.nextInt(TITLE_WORDS.length)]).append(' ')
+            .append(TITLE_WORDS[fixed.nextInt(TITLE_WORDS.length)]).append(' ').append(course % 997);
+        row.append(',');
+        int teachers = fixed.nextInt(5) == 0 ? 2 + fixed.nextInt(3) : 1;
+        StringBuilder names = new StringBuilder();
+        for (int t = 0; t < teachers; t++) {
+            if (t > 0) {
+                names.append(", ");
+            }
+            int instructor = skewed(fixed, instructorCount);
+            names.append(FIRST_NAMES[instructor % FIRST_NAMES.length]).append(' ')
+                .append(LAST_NAMES[instructor / FIRST_NAMES.length % LAST_NAMES.length])
+                .append(' ').append(instructor);
+        }
+        appendText(row, names.toString());
+        row.append(',');
+        appendText(row, SUBJECTS[skewed(fixed, SUBJECTS.length)]);
+        row.append(',').append(Math.min(4, Math.max(1, LocalDate.ofEpochDay(launchDay).getYear() - 2011)));
+
+        int participants = (int) Math.min(300_000, Math.exp(6 + 2 * Math.abs(random.nextGaussian())));
+        double audited = 2 + 40 * random.nextDouble();
+        double certified = audited * random.nextDouble();
+        int auditedNum = (int) (participants * audited / 100);
+        int certifiedNum = (int) (participants * certified / 100);
+        row.append(',').append(random.nextInt(2));
+        row.append(',').append(participants).append(',').append(auditedNum).append(',').append(certifiedNum);
+        double male = 30 + 60 * random.nextDouble();
+        double[] values = {audited, certified, auditedNum == 0 ? 0 : 100.0 * certifiedNum / auditedNum,
+            50 + 50 * random.nextDouble(), 20 * random.nextDouble(), 10 + 60 * random.nextDouble(),
+            participants * (0.5 + 20 * random.nextDouble()) / 1000, 5 + 100 * random.nextDouble(),
+            20 + random.nextInt(25), male, 100 - male, 30 + 60 * random.nextDouble()};
+        for (double value : values) {
+            row.append(',').append(Math.round(value * 100) / 100.0);
+        }
+    }
+
+    /** An index in {@code [0, n)} where index {@code k} is about {@code 1 / (k + 1)} as likely as 0. */
+    private static int skewed(Random random, int n) {
+        return (int) Math.min(n - 1, Math.exp(random.nextDouble() * Math.log(n + 1)) - 1);
+    }
+
+    private static double jitter(Random random) {
+        return 0.9 + 0.2 * random.nextDouble();
+    }
+
+    static void appendDate(StringBuilder row, long epochDay) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        pad(row, date.getMonthValue());
+        row.append('/');
+        pad(row, date.getDayOfMonth());
+        row.append('/').append(date.getYear());
+    }
+
+    static void appendText(StringBuilder row, String text) {
+        if (text.indexOf(',') >= 0) {
+            row.append('"').append(text).append('"');
+        } else {
+            row.append(text);
+        }
+    }
+
+    private static void pad(StringBuilder row, int value) {
+        if (value < 10) {
+            row.append('0');
+        }
+        row.append(value);
+    }
+
+    /**
+     * {@code java CourseCsvGenerator <template.csv> <out.csv> <factor> [seed]} or
+     * {@code java CourseCsvGenerator --rows <count> <out.csv> [seed]}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("usage: CourseCsvGenerator <template.csv> <out.csv> <factor> [seed]");
+            System.err.println("       CourseCsvGenerator --rows <count> <out.csv> [seed]");
+            System.exit(2);
+        }
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 209L;
+        if (args[0].equals("--rows")) {
+            generate(Paths.get(args[2]), Long.parseLong(args[1]), seed);
+        } else {
+            scale(Paths.get(args[0]), Paths.get(args[1]), Integer.parseInt(args[2]), seed);
+        }
+    }
+}
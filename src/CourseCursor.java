@@ -0,0 +1,147 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+/**
+ * Flyweight view of the current row of a course CSV. One cursor is reused for every row of a
+ * pass; numeric columns are parsed to primitives on access and strings are only built for the
+ * columns a query reads, so a one-pass query allocates little beyond each line and what it keeps. Use
+ * {@link #toCourse()} for a row that has to outlive the pass.
+ */
+final class CourseCursor {
+
+    private final CourseTokenizer fields = new CourseTokenizer();
+    private long row = -1;
+
+    /**
+     * The rows of {@code csvFile}, all delivered through the same cursor. The stream must be
+     * consumed sequentially and closed.
+     */
+    static Stream<CourseCursor> rows(Path csvFile) {
+        CourseCursor cursor = new CourseCursor();
+        try {
+            return Files.lines(csvFile).skip(1).map(cursor::next);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    CourseCursor next(String line) {
+        fields.next(line);
+        row++;
+        return this;
+    }
+
+    /** Points the cursor at the row in {@code buf[from, to)}; see {@link CourseTokenizer#tokenize}. */
+    CourseCursor tokenize(char[] buf, int from, int to, long line) {
+        fields.tokenize(buf, from, to, line);
+        row++;
+        return this;
+    }
+
+    CourseTokenizer fields() {
+        return fields;
+    }
+
+    /** Zero-based index of the current row among the rows this cursor has visited. */
+    long row() {
+        return row;
+    }
+
+    OnlineCoursesAnalyzer.Course toCourse() {
+        return new OnlineCoursesAnalyzer.Course(fields);
+    }
+
+    String institution() {
+        return fields.raw(0);
+    }
+
+    String courseNumber() {
+        return fields.raw(1);
+    }
+
+    int launchDay() {
+        return fields.epochDayField(2);
+    }
+
+    String courseTitle() {
+        return fields.unquoted(3).trim();
+    }
+
+    String instructors() {
+        return fields.unquoted(4);
+    }
+
+    String courseSubject() {
+        return fields.unquoted(5);
+    }
+
+    int year() {
+        return fields.intField(6);
+    }
+
+    int honorCodeCertificates() {
+        return fields.intField(7);
+    }
+
+    int participant() {
+        return fields.intField(8);
+    }
+
+    int auditedNum() {
+        return fields.intField(9);
+    }
+
+    int certifiedNum() {
+        return fields.intField(10);
+    }
+
+    double auditedProportion() {
+        return fields.doubleField(11);
+    }
+
+    double certifiedProportion() {
+        return fields.doubleField(12);
+    }
+
+    double certifiedAmongAuditedProportion() {
+        return fields.doubleField(13);
+    }
+
+    double playedVideo() {
+        return fields.doubleField(14);
+    }
+
+    double postedInForum() {
+        return fields.doubleField(15);
+    }
+
+    double gradeHigherThanZero() {
+        return fields.doubleField(16);
+    }
+
+    double totalCourseHour() {
+        return fields.doubleField(17);
+    }
+
+    double medianHoursForCertification() {
+        return fields.doubleField(18);
+    }
+
+    double medianAge() {
+        return fields.doubleField(19);
+    }
+
+    double maleProportion() {
+        return fields.doubleField(20);
+    }
+
+    double femaleProportion() {
+        return fields.doubleField(21);
+    }
+
+    double bachelorDegreeOrHigherProportion() {
+        return fields.doubleField(22);
+    }
+}
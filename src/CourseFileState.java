@@ -0,0 +1,96 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * How much of a course CSV has been loaded: the byte length up to the end of the last complete
+ * row and a CRC32C of those bytes, used to tell an append (the old bytes are still a prefix) from
+ * a rewrite. The bytes from {@code length} to {@code fileSize} are a last row without its
+ * newline, possibly still being written, so they are never counted as loaded.
+ */
+record CourseFileState(long length, long checksum, long fileSize) {
+
+    private static final int BLOCK = 1 << 20;
+
+    /** The complete rows of {@code file}, i.e. its bytes up to and including the last newline. */
+    static CourseFileState of(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long length = lastRowEnd(channel, 0, size);
+            CRC32C crc = new CRC32C();
+            update(crc, channel, 0, length);
+            return new CourseFileState(length, crc.getValue(), size);
+        }
+    }
+
+    /** Whether the file ends with a row still missing its newline. */
+    boolean hasPartialRow() {
+        return fileSize > length;
+    }
+
+    /**
+     * If {@code file} still starts with the bytes described here, the state extended over the
+     * complete rows appended since (possibly this state itself, if the file did not change);
+     * {@code null} if the file was truncated or rewritten.
+     */
+    CourseFileState appended(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < length) {
+                return null;
+            }
+            CRC32C crc = new CRC32C();
+            update(crc, channel, 0, length);
+            if (crc.getValue() != checksum) {
+                return null;
+            }
+            long end = lastRowEnd(channel, length, size);
+            if (end == length) {
+                return size == fileSize ? this : new CourseFileState(length, checksum, size);
+            }
+            update(crc, channel, length, end);
+            return new CourseFileState(end, crc.getValue(), size);
+        }
+    }
+
+    /** The offset just past the last newline in {@code [from, to)}, or {@code from} if none. */
+    private static long lastRowEnd(FileChannel channel, long from, long to) throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(BLOCK);
+        for (long end = to; end > from; ) {
+            long start = Math.max(from, end - BLOCK);
+            block.clear().limit((int) (end - start));
+            int read = 0;
+            while (block.hasRemaining()) {
+                int n = channel.read(block, start + read);
+                if (n <= 0) {
+                    throw new IOException("file shrank while reading");
+                }
+                read += n;
+            }
+            for (int i = read - 1; i >= 0; i--) {
+                if (block.get(i) == '\n') {
+                    return start + i + 1;
+                }
+            }
+            end = start;
+        }
+        return from;
+    }
+
+    private static void update(CRC32C crc, FileChannel channel, long from, long to) throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(BLOCK);
+        for (long position = from; position < to; ) {
+            block.clear().limit((int) Math.min(BLOCK, to - position));
+            int read = channel.read(block, position);
+            if (read <= 0) {
+                throw new IOException("file shrank while reading");
+            }
+            block.flip();
+            crc.update(block);
+            position += read;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+import java.nio.file.Path;
+
+/**
+ * Thrown when a course CSV row cannot be parsed. Carries the 1-based line and column of the
+ * offending character, and the file when several are read at once.
+ */
+public class CourseFormatException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long line;
+    private final int column;
+    private final transient Path file;
+
+    public CourseFormatException(long line, int column, String reason) {
+        super("line " + line + ", column " + column + ": " + reason);
+        this.line = line;
+        this.column = column;
+        this.file = null;
+    }
+
+    /** {@code cause}, which was thrown while reading {@code file}. */
+    public CourseFormatException(Path file, CourseFormatException cause) {
+        super(file + ": " + cause.getMessage(), cause);
+        this.line = cause.line;
+        this.column = cause.column;
+        this.file = file;
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    /** The file of the row, or {@code null} if only one file was being read. */
+    public Path getFile() {
+        return file;
+    }
+}
@@ -0,0 +1,83 @@
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * The numeric course columns {@code getCourses} can rank by. {@code "hours"} and
+ * {@code "participants"} keep their original names; every other column is addressed by its
+ * field name, e.g. {@code "certifiedNum"} or {@code "playedVideo"}.
+ */
+enum CourseMetric {
+
+    HOURS("hours", CourseCursor::totalCourseHour, doubles(s -> s.totalCourseHour)),
+    PARTICIPANTS("participants", CourseCursor::participant, ints(s -> s.participant)),
+    YEAR("year", CourseCursor::year, ints(s -> s.year)),
+    HONOR_CODE_CERTIFICATES("honorCodeCertificates", CourseCursor::honorCodeCertificates,
+        ints(s -> s.honorCodeCertificates)),
+    AUDITED_NUM("auditedNum", CourseCursor::auditedNum, ints(s -> s.auditedNum)),
+    CERTIFIED_NUM("certifiedNum", CourseCursor::certifiedNum, ints(s -> s.certifiedNum)),
+    AUDITED_PROPORTION("auditedProportion", CourseCursor::auditedProportion, doubles(s -> s.auditedProportion)),
+    CERTIFIED_PROPORTION("certifiedProportion", CourseCursor::certifiedProportion, doubles(s -> s.certifiedProportion)),
+    CERTIFIED_AMONG_AUDITED_PROPORTION("certifiedAmongAuditedProportion",
+        CourseCursor::certifiedAmongAuditedProportion, doubles(s -> s.certifiedAmongAuditedProportion)),
+    PLAYED_VIDEO("playedVideo", CourseCursor::playedVideo, doubles(s -> s.playedVideo)),
+    POSTED_IN_FORUM("postedInForum", CourseCursor::postedInForum, doubles(s -> s.postedInForum)),
+    GRADE_HIGHER_THAN_ZERO("gradeHigherThanZero", CourseCursor::gradeHigherThanZero,
+        doubles(s -> s.gradeHigherThanZero)),
+    MEDIAN_HOURS_FOR_CERTIFICATION("medianHoursForCertification", CourseCursor::medianHoursForCertification,
+        doubles(s -> s.medianHoursForCertification)),
+    MEDIAN_AGE("medianAge", CourseCursor::medianAge, doubles(s -> s.medianAge)),
+    MALE_PROPORTION("maleProportion", CourseCursor::maleProportion, doubles(s -> s.maleProportion)),
+    FEMALE_PROPORTION("femaleProportion", CourseCursor::femaleProportion, doubles(s -> s.femaleProportion)),
+    BACHELOR_DEGREE_OR_HIGHER_PROPORTION("bachelorDegreeOrHigherProportion",
+        CourseCursor::bachelorDegreeOrHigherProportion, doubles(s -> s.bachelorDegreeOrHigherProportion));
+
+    private static final Map<String, CourseMetric> BY_KEY = new HashMap<>();
+
+    static {
+        for (CourseMetric metric : values()) {
+            BY_KEY.put(metric.key, metric);
+        }
+    }
+
+    final String key;
+    private final ToDoubleFunction<CourseCursor> cursor;
+    private final Function<CourseStore, IntToDoubleFunction> column;
+
+    CourseMetric(String key, ToDoubleFunction<CourseCursor> cursor, Function<CourseStore, IntToDoubleFunction> column) {
+        this.key = key;
+        this.cursor = cursor;
+        this.column = column;
+    }
+
+    /** Reads an {@code int} column of the store. */
+    private static Function<CourseStore, IntToDoubleFunction> ints(Function<CourseStore, int[]> column) {
+        return s -> {
+            int[] values = column.apply(s);
+            return row -> values[row];
+        };
+    }
+
+    /** Reads a {@code double} column of the store. */
+    private static Function<CourseStore, IntToDoubleFunction> doubles(Function<CourseStore, double[]> column) {
+        return s -> {
+            double[] values = column.apply(s);
+            return row -> values[row];
+        };
+    }
+
+    /** The metric named {@code by}, or {@code null} if there is none. */
+    static CourseMetric of(String by) {
+        return BY_KEY.get(by);
+    }
+
+    double valueOf(CourseCursor row) {
+        return cursor.applyAsDouble(row);
+    }
+
+    IntToDoubleFunction column(CourseStore store) {
+        return column.apply(store);
+    }
+}
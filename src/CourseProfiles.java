@@ -0,0 +1,214 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One profile per course number: the title of its latest offering and the mean median age,
+ * male % and bachelor % over all of its offerings. Built in a single grouped pass over a
+ * {@link CourseStore}, after which a recommendation is one distance scan over these arrays.
+ */
+final class CourseProfiles {
+
+    private static final CourseProfiles EMPTY = new CourseProfiles(new String[0], new int[0],
+        new int[1], new int[0], new int[0], new double[0], new double[0], new double[0]);
+    /** Profiles scored together, and courses per tile: three columns of 1024 doubles fit in L1/L2. */
+    private static final int PROFILE_TILE = 64;
+    private static final int COURSE_TILE = 1024;
+    private static final int MEMO_LIMIT = 1 << 16;
+
+    final int size;
+    final int[] courseNumber;
+    final int[] title;
+    /** Title of each profile as its place among the distinct titles, equal titles sharing one. */
+    final int[] titleId;
+    final double[] medianAge;
+    final double[] male;
+    final double[] bachelor;
+    /** Rows of profile {@code g} in file order are {@code groupRows[groupStart[g]..groupStart[g + 1])}. */
+    private final int[] groupStart;
+    private final int[] groupRows;
+    private final String[] strings;
+    /** Dictionary code of each title id. */
+    private final int[] titleCode;
+    private final Map<Profile, List<String>> memo = new ConcurrentHashMap<>();
+
+    private CourseProfiles(String[] strings, int[] courseNumber, int[] groupStart, int[] groupRows,
+        int[] title, double[] medianAge, double[] male, double[] bachelor) {
+        this.size = title.length;
+        this.strings = strings;
+        this.courseNumber = courseNumber;
+        this.groupStart = groupStart;
+        this.groupRows = groupRows;
+        this.title = title;
+        this.medianAge = medianAge;
+        this.male = male;
+        this.bachelor = bachelor;
+        // Each distinct title is ranked once; a profile's title id and index then order the
+        // profiles by title, ties in profile order.
+        BitSet used = new BitSet(strings.length);
+        for (int g = 0; g < size; g++) {
+            used.set(title[g]);
+        }
+        this.titleCode = used.stream().toArray();
+        RowSort.byString(titleCode, strings);
+        int[] idOfCode = new int[strings.length];
+        for (int id = 1; id < titleCode.length; id++) {
+            boolean same = strings[titleCode[id]].equals(strings[titleCode[id - 1]]);
+            idOfCode[titleCode[id]] = same ? idOfCode[titleCode[id - 1]] : id;
+        }
+        this.titleId = new int[size];
+        for (int g = 0; g < size; g++) {
+            titleId[g] = idOfCode[title[g]];
+        }
+    }
+
+    static CourseProfiles of(CourseStore store) {
+        return EMPTY.withRows(store, 0);
+    }
+
+    /**
+     * These profiles plus the rows of {@code store} from {@code from} on. Only the course numbers
+     * those rows touch are recomputed.
+     */
+    CourseProfiles withRows(CourseStore store, int from) {
+        int[] profileOf = new int[store.strings.length];
+        Arrays.fill(profileOf, -1);
+        for (int g = 0; g < size; g++) {
+            profileOf[courseNumber[g]] = g;
+        }
+        int[] added = new int[size + store.size - from];
+        int groups = size;
+        for (int i = from; i < store.size; i++) {
+            int code = store.courseNumber[i];
+            if (profileOf[code] < 0) {
+                profileOf[code] = groups++;
+            }
+            added[profileOf[code]]++;
+        }
+
+        int[] start = new int[groups + 1];
+        for (int g = 0; g < groups; g++) {
+            int before = g < size ? groupStart[g + 1] - groupStart[g] : 0;
+            start[g + 1] = start[g] + before + added[g];
+        }
+        int[] rows = new int[store.size];
+        int[] fill = new int[groups];
+        for (int g = 0; g < groups; g++) {
+            fill[g] = start[g];
+            if (g < size) {
+                int before = groupStart[g + 1] - groupStart[g];
+                System.arraycopy(groupRows, groupStart[g], rows, start[g], before);
+                fill[g] += before;
+            }
+        }
+        for (int i = from; i < store.size; i++) {
+            rows[fill[profileOf[store.courseNumber[i]]]++] = i;
+        }
+
+        int[] numbers = Arrays.copyOf(courseNumber, groups);
+        int[] titles = Arrays.copyOf(title, groups);
+        double[] ages = Arrays.copyOf(medianAge, groups);
+        double[] males = Arrays.copyOf(male, groups);
+        double[] bachelors = Arrays.copyOf(bachelor, groups);
+        long[] latestFirst = new long[0];
+        for (int g = 0; g < groups; g++) {
+            if (added[g] == 0) {
+                continue;
+            }
+            int n = start[g + 1] - start[g];
+            if (latestFirst.length < n) {
+                latestFirst = new long[Math.max(n, latestFirst.length * 2)];
+            }
+            // Latest launch first, ties in file order; the means are summed in this order too. The
+            // complemented day in the high half sorts later launches first, the row breaks ties.
+            for (int i = 0; i < n; i++) {
+                int row = rows[start[g] + i];
+                latestFirst[i] = (long) ~store.launchDay[row] << 32 | row;
+            }
+            Arrays.sort(latestFirst, 0, n);
+            double sumAge = 0;
+            double sumMale = 0;
+            double sumBachelor = 0;
+            for (int i = 0; i < n; i++) {
+                int row = (int) latestFirst[i];
+                sumAge += store.medianAge[row];
+                sumMale += store.maleProportion[row];
+                sumBachelor += store.bachelorDegreeOrHigherProportion[row];
+            }
+            int latest = (int) latestFirst[0];
+            numbers[g] = store.courseNumber[latest];
+            titles[g] = store.courseTitle[latest];
+            ages[g] = sumAge / n;
+            males[g] = sumMale / n;
+            bachelors[g] = sumBachelor / n;
+        }
+        return new CourseProfiles(store.strings, numbers, start, rows, titles, ages, males, bachelors);
+    }
+
+    List<String> recommend(int age, int gender, int isBachelorOrHigher) {
+        return new ArrayList<>(recommend(new int[] {age}, new int[] {gender}, new int[] {isBachelorOrHigher},
+            false).get(0));
+    }
+
+    /**
+     * Recommendations for many distinct profiles, as unmodifiable lists in argument order.
+     * Distances are computed tile by tile: a tile of course columns stays in cache while every
+     * profile of a profile tile is scored against it. With {@code memoize}, answers are kept per
+     * profile for the lifetime of these profiles.
+     */
+    List<List<String>> recommend(int[] ages, int[] genders, int[] degrees, boolean memoize) {
+        List<List<String>> result = new ArrayList<>(Collections.nCopies(ages.length, null));
+        int[] todo = new int[ages.length];
+        int n = 0;
+        for (int p = 0; p < ages.length; p++) {
+            List<String> known = memoize ? memo.get(new Profile(ages[p], genders[p], degrees[p])) : null;
+            if (known != null) {
+                result.set(p, known);
+            } else {
+                todo[n++] = p;
+            }
+        }
+
+        double[] distance = new double[Math.min(size, COURSE_TILE)];
+        DistinctTopK[] tops = new DistinctTopK[Math.min(n, PROFILE_TILE)];
+        for (int t = 0; t < tops.length; t++) {
+            tops[t] = new DistinctTopK(10, false, titleCode.length);
+        }
+        for (int p0 = 0; p0 < n; p0 += PROFILE_TILE) {
+            int p1 = Math.min(n, p0 + PROFILE_TILE);
+            for (int c0 = 0; c0 < size; c0 += COURSE_TILE) {
+                int c1 = Math.min(size, c0 + COURSE_TILE);
+                for (int t = 0; t < p1 - p0; t++) {
+                    int p = todo[p0 + t];
+                    NumericKernels.INSTANCE.squaredDistances(medianAge, male, bachelor, c0, c1, ages[p],
+                        genders[p] * 100, degrees[p] * 100, distance);
+                    for (int i = c0; i < c1; i++) {
+                        tops[t].offer(distance[i - c0], (long) titleId[i] << 32 | i, titleId[i]);
+                    }
+                }
+            }
+            for (int t = 0; t < p1 - p0; t++) {
+                int p = todo[p0 + t];
+                List<String> titles = new ArrayList<>(10);
+                for (int id : tops[t].titles()) {
+                    titles.add(strings[titleCode[id]]);
+                }
+                tops[t].clear();
+                titles = Collections.unmodifiableList(titles);
+                result.set(p, titles);
+                if (memoize && memo.size() < MEMO_LIMIT) {
+                    memo.put(new Profile(ages[p], genders[p], degrees[p]), titles);
+                }
+            }
+        }
+        return result;
+    }
+
+    /** A learner profile as passed to {@code recommendCourses}. */
+    record Profile(int age, int gender, int isBachelorOrHigher) {
+    }
+}
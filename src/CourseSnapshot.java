@@ -0,0 +1,213 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary, column-oriented image of a {@link CourseStore}, so an analyzer can start without
+ * parsing any CSV text.
+ *
+ * <pre>
+ * header   magic "OCAS", version, rows, strings, sections      (int32 each, little-endian)
+ * table    per section: offset, length, CRC32C                 (int64 each)
+ *          CRC32C of header and table                          (int64)
+ * sections string offsets (int32[strings + 1]), string bytes (UTF-8), independent (int8[rows]),
+ *          11 int32[rows] columns, 12 float64[rows] columns; each 8-byte aligned
+ * </pre>
+ */
+final class CourseSnapshot {
+
+    static final int MAGIC = 0x5341434F;
+    static final int VERSION = 1;
+
+    private static final int HEADER_INTS = 5;
+    private static final int SECTIONS = 3 + CourseStore.INT_COLUMNS + CourseStore.DOUBLE_COLUMNS;
+    private static final int TABLE_START = 8 * ((HEADER_INTS * 4 + 7) / 8);
+    private static final int DATA_START = TABLE_START + SECTIONS * 24 + 8;
+
+    private CourseSnapshot() {
+    }
+
+    static void write(CourseStore store, Path file) throws IOException {
+        ByteBuffer[] sections = new ByteBuffer[SECTIONS];
+        byte[][] encoded = new byte[store.strings.length][];
+        ByteBuffer offsets = allocate(4L * (store.strings.length + 1));
+        int total = 0;
+        offsets.putInt(0);
+        for (int i = 0; i < encoded.length; i++) {
+            encoded[i] = store.strings[i].getBytes(StandardCharsets.UTF_8);
+            total = Math.addExact(total, encoded[i].length);
+            offsets.putInt(total);
+        }
+        ByteBuffer bytes = allocate(total);
+        for (byte[] s : encoded) {
+            bytes.put(s);
+        }
+        ByteBuffer independent = allocate(store.size);
+        for (int i = 0; i < store.size; i++) {
+            independent.put((byte) (store.independent[i] ? 1 : 0));
+        }
+        sections[0] = offsets;
+        sections[1] = bytes;
+        sections[2] = independent;
+        int s = 3;
+        for (int[] column : store.intColumns()) {
+            ByteBuffer section = allocate(4L * store.size);
+            section.asIntBuffer().put(column, 0, store.size);
+            section.position(section.limit());
+            sections[s++] = section;
+        }
+        for (double[] column : store.doubleColumns()) {
+            ByteBuffer section = allocate(8L * store.size);
+            section.asDoubleBuffer().put(column, 0, store.size);
+            section.position(section.limit());
+            sections[s++] = section;
+        }
+
+        ByteBuffer header = allocate(DATA_START);
+        header.putInt(MAGIC).putInt(VERSION).putInt(store.size).putInt(store.strings.length).putInt(SECTIONS);
+        header.position(TABLE_START);
+        long offset = DATA_START;
+        for (ByteBuffer section : sections) {
+            section.flip();
+            CRC32C crc = new CRC32C();
+            crc.update(section.duplicate());
+            header.putLong(offset).putLong(section.remaining()).putLong(crc.getValue());
+            offset = align(offset + section.remaining());
+        }
+        header.putLong(crc(header, 0, DATA_START - 8));
+        header.flip();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, header, 0);
+            long position = DATA_START;
+            for (ByteBuffer section : sections) {
+                int length = section.remaining();
+                writeFully(channel, section, position);
+                position = align(position + length);
+            }
+        }
+    }
+
+    static CourseStore read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < DATA_START) {
+                throw corrupt(file, "too short");
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, DATA_START)
+                .order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != MAGIC) {
+                throw corrupt(file, "not a course snapshot");
+            }
+            if (header.getInt(4) != VERSION) {
+                throw corrupt(file, "unsupported version " + header.getInt(4));
+            }
+            if (header.getInt(16) != SECTIONS || header.getLong(DATA_START - 8) != crc(header, 0, DATA_START - 8)) {
+                throw corrupt(file, "header checksum mismatch");
+            }
+            int rows = header.getInt(8);
+            int stringCount = header.getInt(12);
+            if (rows < 0 || stringCount < 0) {
+                throw corrupt(file, "negative row or string count");
+            }
+
+            ByteBuffer[] sections = new ByteBuffer[SECTIONS];
+            for (int s = 0; s < SECTIONS; s++) {
+                int entry = TABLE_START + s * 24;
+                long offset = header.getLong(entry);
+                long length = header.getLong(entry + 8);
+                if (offset < DATA_START || length < 0 || length > channel.size() - offset) {
+                    throw corrupt(file, "section " + s + " out of bounds");
+                }
+                long expected = expectedLength(s, rows, stringCount);
+                if (expected >= 0 && length != expected) {
+                    throw corrupt(file, "section " + s + " holds " + length + " bytes, expected " + expected);
+                }
+                sections[s] = channel.map(FileChannel.MapMode.READ_ONLY, offset, length)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+                CRC32C crc = new CRC32C();
+                crc.update(sections[s].duplicate());
+                if (crc.getValue() != header.getLong(entry + 16)) {
+                    throw corrupt(file, "section " + s + " checksum mismatch");
+                }
+            }
+
+            int[] offsets = new int[stringCount + 1];
+            sections[0].asIntBuffer().get(offsets);
+            byte[] bytes = new byte[sections[1].remaining()];
+            sections[1].get(bytes);
+            if (offsets[0] != 0 || offsets[stringCount] != bytes.length) {
+                throw corrupt(file, "string offsets do not span the string bytes");
+            }
+            for (int i = 0; i < stringCount; i++) {
+                if (offsets[i] > offsets[i + 1]) {
+                    throw corrupt(file, "string offsets out of order at " + i);
+                }
+            }
+            String[] strings = new String[stringCount];
+            for (int i = 0; i < stringCount; i++) {
+                strings[i] = new String(bytes, offsets[i], offsets[i + 1] - offsets[i], StandardCharsets.UTF_8);
+            }
+            boolean[] independent = new boolean[rows];
+            for (int i = 0; i < rows; i++) {
+                independent[i] = sections[2].get(i) != 0;
+            }
+            int[][] ints = new int[CourseStore.INT_COLUMNS][rows];
+            for (int c = 0; c < ints.length; c++) {
+                sections[3 + c].asIntBuffer().get(ints[c]);
+            }
+            double[][] doubles = new double[CourseStore.DOUBLE_COLUMNS][rows];
+            for (int c = 0; c < doubles.length; c++) {
+                sections[3 + ints.length + c].asDoubleBuffer().get(doubles[c]);
+            }
+            try {
+                return CourseStore.of(rows, strings, independent, ints, doubles);
+            } catch (IllegalArgumentException e) {
+                throw corrupt(file, e.getMessage());
+            }
+        }
+    }
+
+    /** Byte length section {@code s} must have, or -1 for the string bytes, checked against their offsets. */
+    private static long expectedLength(int s, int rows, int strings) {
+        if (s == 0) {
+            return 4L * (strings + 1);
+        }
+        if (s == 1) {
+            return -1;
+        }
+        if (s == 2) {
+            return rows;
+        }
+        return s < 3 + CourseStore.INT_COLUMNS ? 4L * rows : 8L * rows;
+    }
+
+    private static ByteBuffer allocate(long size) {
+        return ByteBuffer.allocate(Math.toIntExact(size)).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static long align(long offset) {
+        return (offset + 7) & ~7L;
+    }
+
+    private static long crc(ByteBuffer buffer, int from, int to) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().position(from).limit(to));
+        return crc.getValue();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static IOException corrupt(Path file, String reason) {
+        return new IOException(file + ": " + reason);
+    }
+}
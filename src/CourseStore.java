@@ -0,0 +1,537 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Immutable column-oriented copy of a course CSV. Numeric columns are kept in primitive
+ * arrays, string columns as codes into a shared dictionary and the launch date as an
+ * epoch day, so the six queries can run without re-reading or re-parsing the file.
+ */
+final class CourseStore {
+
+    static final int INT_COLUMNS = 11;
+    static final int DOUBLE_COLUMNS = 12;
+
+    final int size;
+    final String[] strings;
+
+    final int[] institution;
+    final int[] courseNumber;
+    final int[] courseTitle;
+    final int[] instructors;
+    final int[] courseSubject;
+    final boolean[] independent;
+    final int[] launchDay;
+    final int[] year;
+    final int[] honorCodeCertificates;
+    final int[] participant;
+    final int[] auditedNum;
+    final int[] certifiedNum;
+    final double[] auditedProportion;
+    final double[] certifiedProportion;
+    final double[] certifiedAmongAuditedProportion;
+    final double[] playedVideo;
+    final double[] postedInForum;
+    final double[] gradeHigherThanZero;
+    final double[] totalCourseHour;
+    final double[] medianHoursForCertification;
+    final double[] medianAge;
+    final double[] maleProportion;
+    final double[] femaleProportion;
+    final double[] bachelorDegreeOrHigherProportion;
+
+    private final Derived<ParticipantCounts> participantCounts;
+    private final Derived<InstructorIndex> instructorIndex;
+    private final Derived<CourseProfiles> profiles;
+    private final Derived<SubjectIndex> subjectIndex;
+    /** Rows by descending value per metric, stable, built on the first ranking by that metric. */
+    private final Map<CourseMetric, int[]> rankings = new ConcurrentHashMap<>();
+    /** Rows by launch day, ties in row order, built on the first window taken. */
+    private volatile int[] byLaunchDay;
+    /** The builder whose columns this store was published over, if it came from {@link #append}. */
+    private final Builder tail;
+
+    /**
+     * A store over the first {@code size} rows of these columns, laid out as {@link #intColumns()}
+     * and {@link #doubleColumns()}. Its derived structures are built on first use; with a
+     * {@code base}, those the base had built by now are extended by the rows after it instead.
+     */
+    private CourseStore(int size, String[] strings, boolean[] independent, int[][] ints, double[][] doubles,
+        CourseStore base, Builder tail) {
+        this.size = size;
+        this.tail = tail;
+        this.strings = strings;
+        this.independent = independent;
+        this.institution = ints[0];
+        this.courseNumber = ints[1];
+        this.courseTitle = ints[2];
+        this.instructors = ints[3];
+        this.courseSubject = ints[4];
+        this.launchDay = ints[5];
+        this.year = ints[6];
+        this.honorCodeCertificates = ints[7];
+        this.participant = ints[8];
+        this.auditedNum = ints[9];
+        this.certifiedNum = ints[10];
+        this.auditedProportion = doubles[0];
+        this.certifiedProportion = doubles[1];
+        this.certifiedAmongAuditedProportion = doubles[2];
+        this.playedVideo = doubles[3];
+        this.postedInForum = doubles[4];
+        this.gradeHigherThanZero = doubles[5];
+        this.totalCourseHour = doubles[6];
+        this.medianHoursForCertification = doubles[7];
+        this.medianAge = doubles[8];
+        this.maleProportion = doubles[9];
+        this.femaleProportion = doubles[10];
+        this.bachelorDegreeOrHigherProportion = doubles[11];
+        int from = base == null ? 0 : base.size;
+        ParticipantCounts counts = base == null ? null : base.participantCounts.built();
+        InstructorIndex instructorsBefore = base == null ? null : base.instructorIndex.built();
+        CourseProfiles profilesBefore = base == null ? null : base.profiles.built();
+        SubjectIndex subjectsBefore = base == null ? null : base.subjectIndex.built();
+        this.participantCounts = new Derived<>(() -> counts == null ? ParticipantCounts.of(this)
+            : counts.withRows(this, from));
+        this.instructorIndex = new Derived<>(() -> instructorsBefore == null ? InstructorIndex.of(this)
+            : instructorsBefore.withRows(this, from));
+        this.profiles = new Derived<>(() -> profilesBefore == null ? CourseProfiles.of(this)
+            : profilesBefore.withRows(this, from));
+        this.subjectIndex = new Derived<>(() -> subjectsBefore == null ? SubjectIndex.of(this)
+            : subjectsBefore.withRows(this, from));
+    }
+
+    static CourseStore load(Path csvFile) throws IOException {
+        Builder builder = new Builder();
+        CourseTokenizer tokenizer = new CourseTokenizer();
+        try (Stream<String> lines = Files.lines(csvFile)) {
+            lines.skip(1).forEachOrdered(line -> builder.add(tokenizer.next(line)));
+        }
+        return builder.build();
+    }
+
+    /**
+     * A store over existing columns, laid out as {@link #intColumns()} and {@link #doubleColumns()}.
+     * The arrays are taken over, not copied.
+     */
+    static CourseStore of(int size, String[] strings, boolean[] independent, int[][] ints, double[][] doubles) {
+        for (int c = 0; c < 5; c++) {
+            for (int code : ints[c]) {
+                if (code < 0 || code >= strings.length) {
+                    throw new IllegalArgumentException("string code " + code + " out of range");
+                }
+            }
+        }
+        return new CourseStore(size, strings, independent, ints, doubles, null, null);
+    }
+
+    int[][] intColumns() {
+        return new int[][] {institution, courseNumber, courseTitle, instructors, courseSubject, launchDay, year,
+            honorCodeCertificates, participant, auditedNum, certifiedNum};
+    }
+
+    double[][] doubleColumns() {
+        return new double[][] {auditedProportion, certifiedProportion, certifiedAmongAuditedProportion,
+            playedVideo, postedInForum, gradeHigherThanZero, totalCourseHour, medianHoursForCertification,
+            medianAge, maleProportion, femaleProportion, bachelorDegreeOrHigherProportion};
+    }
+
+    /**
+     * A new store holding these rows followed by {@code rows}; this store is left untouched. The
+     * new store shares its columns with a builder that has room to spare, and appending to the
+     * newest store of such a chain only writes the new rows past the end of the shared columns.
+     */
+    CourseStore append(Builder rows) {
+        if (tail != null) {
+            synchronized (tail) {
+                if (tail.size == size) {
+                    return tail.addAll(rows).publish(this);
+                }
+            }
+        }
+        return new Builder(this).addAll(rows).publish(this);
+    }
+
+    /**
+     * A store of the rows launched on days {@code [fromDay, toDay)}, in their order here. The rows
+     * are found by binary search in the launch-day order, so rows outside the window are never
+     * visited. The window shares this store's dictionary and builds its indexes only as queries
+     * need them.
+     */
+    CourseStore launchedBetween(int fromDay, int toDay) {
+        int[] order = launchOrder();
+        int from = firstLaunchedOnOrAfter(order, fromDay);
+        int to = Math.max(from, firstLaunchedOnOrAfter(order, toDay));
+        int[] rows = Arrays.copyOfRange(order, from, to);
+        Arrays.sort(rows);
+
+        boolean[] independentRows = new boolean[rows.length];
+        for (int k = 0; k < rows.length; k++) {
+            independentRows[k] = independent[rows[k]];
+        }
+        int[][] ints = intColumns();
+        for (int c = 0; c < ints.length; c++) {
+            int[] column = new int[rows.length];
+            for (int k = 0; k < rows.length; k++) {
+                column[k] = ints[c][rows[k]];
+            }
+            ints[c] = column;
+        }
+        double[][] doubles = doubleColumns();
+        for (int c = 0; c < doubles.length; c++) {
+            double[] column = new double[rows.length];
+            for (int k = 0; k < rows.length; k++) {
+                column[k] = doubles[c][rows[k]];
+            }
+            doubles[c] = column;
+        }
+        return new CourseStore(rows.length, strings, independentRows, ints, doubles, null, null);
+    }
+
+    private int[] launchOrder() {
+        int[] order = byLaunchDay;
+        if (order == null) {
+            long[] keys = new long[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = (long) launchDay[i] << 32 | i;
+            }
+            Arrays.sort(keys);
+            order = new int[size];
+            for (int k = 0; k < size; k++) {
+                order[k] = (int) keys[k];
+            }
+            byLaunchDay = order;
+        }
+        return order;
+    }
+
+    private int firstLaunchedOnOrAfter(int[] order, int day) {
+        int lo = 0;
+        int hi = order.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (launchDay[order[mid]] < day) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    ParticipantCounts participantCounts() {
+        return participantCounts.get();
+    }
+
+    InstructorIndex instructorIndex() {
+        return instructorIndex.get();
+    }
+
+    CourseProfiles profiles() {
+        return profiles.get();
+    }
+
+    SubjectIndex subjectIndex() {
+        return subjectIndex.get();
+    }
+
+    /** Builds every derived structure now rather than on first use; returns this store. */
+    CourseStore indexed() {
+        participantCounts.get();
+        instructorIndex.get();
+        profiles.get();
+        subjectIndex.get();
+        return this;
+    }
+
+    String title(int row) {
+        return strings[courseTitle[row]];
+    }
+
+    //4
+    List<String> courses(int topK, CourseMetric metric) {
+        int[] rows = rankings.computeIfAbsent(metric, m -> {
+            IntToDoubleFunction value = m.column(this);
+            double[] values = new double[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = value.applyAsDouble(i);
+            }
+            return RowSort.byValue(values, true);
+        });
+        List<String> result = new ArrayList<>(Math.min(topK, 16));
+        BitSet seen = new BitSet();
+        for (int i = 0; i < rows.length && result.size() < topK; i++) {
+            if (!seen.get(courseTitle[rows[i]])) {
+                seen.set(courseTitle[rows[i]]);
+                result.add(title(rows[i]));
+            }
+        }
+        return result;
+    }
+
+    static final class Builder {
+
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> strings = new ArrayList<>();
+        /** The dictionary as last published, shared by stores while no string is added. */
+        private String[] dictionary;
+        private int size;
+
+        Builder() {
+        }
+
+        /** A builder already holding the rows and dictionary of {@code store}, with room for as many again. */
+        Builder(CourseStore store) {
+            for (String s : store.strings) {
+                code(s);
+            }
+            dictionary = store.strings;
+            size = store.size;
+            int capacity = Math.max(16, 2 * size);
+            institution = Arrays.copyOf(store.institution, capacity);
+            courseNumber = Arrays.copyOf(store.courseNumber, capacity);
+            courseTitle = Arrays.copyOf(store.courseTitle, capacity);
+            instructors = Arrays.copyOf(store.instructors, capacity);
+            courseSubject = Arrays.copyOf(store.courseSubject, capacity);
+            independent = Arrays.copyOf(store.independent, capacity);
+            launchDay = Arrays.copyOf(store.launchDay, capacity);
+            year = Arrays.copyOf(store.year, capacity);
+            honorCodeCertificates = Arrays.copyOf(store.honorCodeCertificates, capacity);
+            participant = Arrays.copyOf(store.participant, capacity);
+            auditedNum = Arrays.copyOf(store.auditedNum, capacity);
+            certifiedNum = Arrays.copyOf(store.certifiedNum, capacity);
+            auditedProportion = Arrays.copyOf(store.auditedProportion, capacity);
+            certifiedProportion = Arrays.copyOf(store.certifiedProportion, capacity);
+            certifiedAmongAuditedProportion = Arrays.copyOf(store.certifiedAmongAuditedProportion, capacity);
+            playedVideo = Arrays.copyOf(store.playedVideo, capacity);
+            postedInForum = Arrays.copyOf(store.postedInForum, capacity);
+            gradeHigherThanZero = Arrays.copyOf(store.gradeHigherThanZero, capacity);
+            totalCourseHour = Arrays.copyOf(store.totalCourseHour, capacity);
+            medianHoursForCertification = Arrays.copyOf(store.medianHoursForCertification, capacity);
+            medianAge = Arrays.copyOf(store.medianAge, capacity);
+            maleProportion = Arrays.copyOf(store.maleProportion, capacity);
+            femaleProportion = Arrays.copyOf(store.femaleProportion, capacity);
+            bachelorDegreeOrHigherProportion = Arrays.copyOf(store.bachelorDegreeOrHigherProportion, capacity);
+        }
+
+        private int[] institution = new int[16];
+        private int[] courseNumber = new int[16];
+        private int[] courseTitle = new int[16];
+        private int[] instructors = new int[16];
+        private int[] courseSubject = new int[16];
+        private boolean[] independent = new boolean[16];
+        private int[] launchDay = new int[16];
+        private int[] year = new int[16];
+        private int[] honorCodeCertificates = new int[16];
+        private int[] participant = new int[16];
+        private int[] auditedNum = new int[16];
+        private int[] certifiedNum = new int[16];
+        private double[] auditedProportion = new double[16];
+        private double[] certifiedProportion = new double[16];
+        private double[] certifiedAmongAuditedProportion = new double[16];
+        private double[] playedVideo = new double[16];
+        private double[] postedInForum = new double[16];
+        private double[] gradeHigherThanZero = new double[16];
+        private double[] totalCourseHour = new double[16];
+        private double[] medianHoursForCertification = new double[16];
+        private double[] medianAge = new double[16];
+        private double[] maleProportion = new double[16];
+        private double[] femaleProportion = new double[16];
+        private double[] bachelorDegreeOrHigherProportion = new double[16];
+
+        void add(CourseTokenizer fields) {
+            if (size == institution.length) {
+                grow(size * 2);
+            }
+            int i = size++;
+            institution[i] = code(fields.raw(0));
+            courseNumber[i] = code(fields.raw(1));
+            launchDay[i] = fields.epochDayField(2);
+            courseTitle[i] = code(fields.unquoted(3).trim());
+            String names = fields.unquoted(4);
+            instructors[i] = code(names);
+            independent[i] = !names.contains(",");
+            courseSubject[i] = code(fields.unquoted(5));
+            year[i] = fields.intField(6);
+            honorCodeCertificates[i] = fields.intField(7);
+            participant[i] = fields.intField(8);
+            auditedNum[i] = fields.intField(9);
+            certifiedNum[i] = fields.intField(10);
+            auditedProportion[i] = fields.doubleField(11);
+            certifiedProportion[i] = fields.doubleField(12);
+            certifiedAmongAuditedProportion[i] = fields.doubleField(13);
+            playedVideo[i] = fields.doubleField(14);
+            postedInForum[i] = fields.doubleField(15);
+            gradeHigherThanZero[i] = fields.doubleField(16);
+            totalCourseHour[i] = fields.doubleField(17);
+            medianHoursForCertification[i] = fields.doubleField(18);
+            medianAge[i] = fields.doubleField(19);
+            maleProportion[i] = fields.doubleField(20);
+            femaleProportion[i] = fields.doubleField(21);
+            bachelorDegreeOrHigherProportion[i] = fields.doubleField(22);
+        }
+
+        /** Appends the rows of {@code other}, re-coding its strings into this dictionary. */
+        Builder addAll(Builder other) {
+            if (size + other.size > institution.length) {
+                grow(Math.max(size + other.size, institution.length * 2));
+            }
+            int[] recode = new int[other.strings.size()];
+            for (int c = 0; c < recode.length; c++) {
+                recode[c] = code(other.strings.get(c));
+            }
+            for (int i = 0; i < other.size; i++) {
+                institution[size + i] = recode[other.institution[i]];
+                courseNumber[size + i] = recode[other.courseNumber[i]];
+                courseTitle[size + i] = recode[other.courseTitle[i]];
+                instructors[size + i] = recode[other.instructors[i]];
+                courseSubject[size + i] = recode[other.courseSubject[i]];
+            }
+            System.arraycopy(other.independent, 0, independent, size, other.size);
+            System.arraycopy(other.launchDay, 0, launchDay, size, other.size);
+            System.arraycopy(other.year, 0, year, size, other.size);
+            System.arraycopy(other.honorCodeCertificates, 0, honorCodeCertificates, size, other.size);
+            System.arraycopy(other.participant, 0, participant, size, other.size);
+            System.arraycopy(other.auditedNum, 0, auditedNum, size, other.size);
+            System.arraycopy(other.certifiedNum, 0, certifiedNum, size, other.size);
+            System.arraycopy(other.auditedProportion, 0, auditedProportion, size, other.size);
+            System.arraycopy(other.certifiedProportion, 0, certifiedProportion, size, other.size);
+            System.arraycopy(other.certifiedAmongAuditedProportion, 0, certifiedAmongAuditedProportion,
+                size, other.size);
+            System.arraycopy(other.playedVideo, 0, playedVideo, size, other.size);
+            System.arraycopy(other.postedInForum, 0, postedInForum, size, other.size);
+            System.arraycopy(other.gradeHigherThanZero, 0, gradeHigherThanZero, size, other.size);
+            System.arraycopy(other.totalCourseHour, 0, totalCourseHour, size, other.size);
+            System.arraycopy(other.medianHoursForCertification, 0, medianHoursForCertification, size,
+                other.size);
+            System.arraycopy(other.medianAge, 0, medianAge, size, other.size);
+            System.arraycopy(other.maleProportion, 0, maleProportion, size, other.size);
+            System.arraycopy(other.femaleProportion, 0, femaleProportion, size, other.size);
+            System.arraycopy(other.bachelorDegreeOrHigherProportion, 0, bachelorDegreeOrHigherProportion,
+                size, other.size);
+            size += other.size;
+            return this;
+        }
+
+        /** A store of the rows so far, over columns trimmed to size. */
+        CourseStore build() {
+            int[][] ints = ints();
+            for (int c = 0; c < ints.length; c++) {
+                ints[c] = Arrays.copyOf(ints[c], size);
+            }
+            double[][] doubles = doubles();
+            for (int c = 0; c < doubles.length; c++) {
+                doubles[c] = Arrays.copyOf(doubles[c], size);
+            }
+            return new CourseStore(size, strings.toArray(new String[0]), Arrays.copyOf(independent, size), ints,
+                doubles, null, null);
+        }
+
+        /**
+         * A store of the rows so far over this builder's own columns, so appending to it writes
+         * past them instead of copying them.
+         */
+        CourseStore buildAppendable() {
+            return publish(null);
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * A store of the rows so far, extending {@code base}, over this builder's own columns. Rows
+         * are only ever added past the end, so published rows are never written again.
+         */
+        private CourseStore publish(CourseStore base) {
+            if (dictionary == null || dictionary.length != strings.size()) {
+                dictionary = strings.toArray(new String[0]);
+            }
+            return new CourseStore(size, dictionary, independent, ints(), doubles(), base, this);
+        }
+
+        private int[][] ints() {
+            return new int[][] {institution, courseNumber, courseTitle, instructors, courseSubject, launchDay, year,
+                honorCodeCertificates, participant, auditedNum, certifiedNum};
+        }
+
+        private double[][] doubles() {
+            return new double[][] {auditedProportion, certifiedProportion, certifiedAmongAuditedProportion,
+                playedVideo, postedInForum, gradeHigherThanZero, totalCourseHour, medianHoursForCertification,
+                medianAge, maleProportion, femaleProportion, bachelorDegreeOrHigherProportion};
+        }
+
+        private int code(String s) {
+            return codes.computeIfAbsent(s, k -> {
+                strings.add(k);
+                return strings.size() - 1;
+            });
+        }
+
+        private void grow(int capacity) {
+            institution = Arrays.copyOf(institution, capacity);
+            courseNumber = Arrays.copyOf(courseNumber, capacity);
+            courseTitle = Arrays.copyOf(courseTitle, capacity);
+            instructors = Arrays.copyOf(instructors, capacity);
+            courseSubject = Arrays.copyOf(courseSubject, capacity);
+            independent = Arrays.copyOf(independent, capacity);
+            launchDay = Arrays.copyOf(launchDay, capacity);
+            year = Arrays.copyOf(year, capacity);
+            honorCodeCertificates = Arrays.copyOf(honorCodeCertificates, capacity);
+            participant = Arrays.copyOf(participant, capacity);
+            auditedNum = Arrays.copyOf(auditedNum, capacity);
+            certifiedNum = Arrays.copyOf(certifiedNum, capacity);
+            auditedProportion = Arrays.copyOf(auditedProportion, capacity);
+            certifiedProportion = Arrays.copyOf(certifiedProportion, capacity);
+            certifiedAmongAuditedProportion = Arrays.copyOf(certifiedAmongAuditedProportion, capacity);
+            playedVideo = Arrays.copyOf(playedVideo, capacity);
+            postedInForum = Arrays.copyOf(postedInForum, capacity);
+            gradeHigherThanZero = Arrays.copyOf(gradeHigherThanZero, capacity);
+            totalCourseHour = Arrays.copyOf(totalCourseHour, capacity);
+            medianHoursForCertification = Arrays.copyOf(medianHoursForCertification, capacity);
+            medianAge = Arrays.copyOf(medianAge, capacity);
+            maleProportion = Arrays.copyOf(maleProportion, capacity);
+            femaleProportion = Arrays.copyOf(femaleProportion, capacity);
+            bachelorDegreeOrHigherProportion = Arrays.copyOf(bachelorDegreeOrHigherProportion, capacity);
+        }
+    }
+
+    /** A structure derived from the rows, built once on first use. */
+    private static final class Derived<T> {
+
+        private Supplier<T> build;
+        private volatile T value;
+
+        Derived(Supplier<T> build) {
+            this.build = build;
+        }
+
+        T get() {
+            T v = value;
+            if (v == null) {
+                synchronized (this) {
+                    v = value;
+                    if (v == null) {
+                        value = v = build.get();
+                        build = null;
+                    }
+                }
+            }
+            return v;
+        }
+
+        /** The structure if it has been built, else {@code null}. */
+        T built() {
+            return value;
+        }
+    }
+}
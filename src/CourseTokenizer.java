@@ -0,0 +1,243 @@
+/**
+ * Single-pass, quote-aware splitter for one course CSV row. Fields are kept as offsets into
+ * the caller's character buffer; numbers are parsed in place so a row can be consumed without
+ * building a {@code String[]} or substrings for the numeric columns.
+ */
+final class CourseTokenizer {
+
+    static final int COLUMNS = 23;
+
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final int[] starts = new int[COLUMNS];
+    private final int[] ends = new int[COLUMNS];
+    private final boolean[] quoted = new boolean[COLUMNS];
+    /** The characters of the current row: {@link #scratch} or a buffer lent to {@link #tokenize}. */
+    private char[] buf;
+    /** Owned by this tokenizer; only {@link #next(String)} writes to it. */
+    private char[] scratch = new char[256];
+    private int lineStart;
+    private long line;
+
+    /** Tokenizes the next line of a file whose header has already been consumed. */
+    CourseTokenizer next(String row) {
+        int length = row.length();
+        if (scratch.length < length) {
+            scratch = new char[Math.max(length, scratch.length * 2)];
+        }
+        row.getChars(0, length, scratch, 0);
+        return tokenize(scratch, 0, length, line == 0 ? 2 : line + 1);
+    }
+
+    /**
+     * Splits {@code buf[from, to)} into {@link #COLUMNS} fields. {@code line} is only used to
+     * report malformed rows. The fields read from {@code buf} until the next row is tokenized;
+     * the tokenizer never writes to it.
+     */
+    CourseTokenizer tokenize(char[] buf, int from, int to, long line) {
+        this.buf = buf;
+        this.lineStart = from;
+        this.line = line;
+        int field = 0;
+        int start = from;
+        boolean inQuotes = false;
+        boolean hasQuote = false;
+        for (int i = from; i < to; i++) {
+            char c = buf[i];
+            if (c == '"') {
+                inQuotes = !inQuotes;
+                hasQuote = true;
+            } else if (c == ',' && !inQuotes) {
+                if (field == COLUMNS - 1) {
+                    throw malformed(i, "more than " + COLUMNS + " fields");
+                }
+                set(field++, start, i, hasQuote);
+                start = i + 1;
+                hasQuote = false;
+            }
+        }
+        if (inQuotes) {
+            throw malformed(to, "unterminated quoted field");
+        }
+        if (field != COLUMNS - 1) {
+            throw malformed(to, "expected " + COLUMNS + " fields but found " + (field + 1));
+        }
+        set(field, start, to, hasQuote);
+        return this;
+    }
+
+    long line() {
+        return line;
+    }
+
+    /** The field exactly as it appears in the row. */
+    String raw(int field) {
+        return new String(buf, starts[field], ends[field] - starts[field]);
+    }
+
+    /** The field with every {@code '"'} removed. */
+    String unquoted(int field) {
+        if (!quoted[field]) {
+            return raw(field);
+        }
+        StringBuilder sb = new StringBuilder(ends[field] - starts[field]);
+        for (int i = starts[field]; i < ends[field]; i++) {
+            if (buf[i] != '"') {
+                sb.append(buf[i]);
+            }
+        }
+        return sb.toString();
+    }
+
+    int intField(int field) {
+        int i = starts[field];
+        int end = ends[field];
+        boolean negative = i < end && buf[i] == '-';
+        if (negative || i < end && buf[i] == '+') {
+            i++;
+        }
+        if (i == end) {
+            throw malformed(i, "expected an integer");
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = buf[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw malformed(i, "expected an integer");
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                throw malformed(i, "integer out of range");
+            }
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            throw malformed(starts[field], "integer out of range");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Parses a plain decimal with up to 15 significant digits exactly, which covers every value
+     * in the course exports; anything else is handed to {@link Double#parseDouble}.
+     */
+    double doubleField(int field) {
+        int i = starts[field];
+        int end = ends[field];
+        boolean negative = i < end && buf[i] == '-';
+        if (negative || i < end && buf[i] == '+') {
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean seenDigit = false;
+        boolean seenPoint = false;
+        for (; i < end; i++) {
+            char c = buf[i];
+            if (c >= '0' && c <= '9') {
+                seenDigit = true;
+                if (mantissa == 0 && c == '0' && !seenPoint) {
+                    continue;
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (seenPoint) {
+                    fractionDigits++;
+                }
+            } else if (c == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                return slowDouble(field);
+            }
+        }
+        if (!seenDigit) {
+            throw malformed(starts[field], "expected a number");
+        }
+        if (digits > 15 || fractionDigits >= POWERS_OF_TEN.length) {
+            return slowDouble(field);
+        }
+        double value = mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    /** Parses a {@code MM/dd/yyyy} field into days since 1970-01-01 without building a date. */
+    int epochDayField(int field) {
+        int i = starts[field];
+        int slash1 = indexOf('/', i, ends[field]);
+        int slash2 = indexOf('/', slash1 + 1, ends[field]);
+        if (slash1 < 0 || slash2 < 0) {
+            throw malformed(i, "expected a MM/dd/yyyy date");
+        }
+        int month = digits(i, slash1);
+        int day = digits(slash1 + 1, slash2);
+        int year = digits(slash2 + 1, ends[field]);
+        if (month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month) || year > 9999) {
+            throw malformed(i, "invalid date " + month + "/" + day + "/" + year);
+        }
+        return epochDay(year, month, day);
+    }
+
+    /** Days since 1970-01-01 of a valid proleptic Gregorian date, as {@code LocalDate.toEpochDay}. */
+    static int epochDay(int year, int month, int day) {
+        // Counted in 400-year eras of 146097 days that start on March 1, so the leap day ends a year.
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        if (month == 2) {
+            return year % 4 == 0 && (year % 100 != 0 || year % 400 == 0) ? 29 : 28;
+        }
+        return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+    }
+
+    private int indexOf(char c, int from, int to) {
+        for (int i = Math.max(from, 0); i < to; i++) {
+            if (buf[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int digits(int from, int to) {
+        if (from == to || to - from > 9) {
+            throw malformed(from, "expected a MM/dd/yyyy date");
+        }
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = buf[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw malformed(i, "expected a MM/dd/yyyy date");
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private double slowDouble(int field) {
+        try {
+            return Double.parseDouble(raw(field));
+        } catch (NumberFormatException e) {
+            throw malformed(starts[field], "expected a number");
+        }
+    }
+
+    private void set(int field, int start, int end, boolean hasQuote) {
+        starts[field] = start;
+        ends[field] = end;
+        quoted[field] = hasQuote;
+    }
+
+    private CourseFormatException malformed(int offset, String reason) {
+        return new CourseFormatException(line, offset - lineStart + 1, reason);
+    }
+}
@@ -0,0 +1,224 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the {@code k} smallest entries by {@code (primary, secondary)} while allowing each title
+ * at most once, which is what {@code sorted(...).map(title).distinct().limit(k)} computes without
+ * sorting everything. Entries live in a bounded max-heap so the common rejection is one compare,
+ * and each title's heap slot is found through an array indexed by title code.
+ * <p>
+ * Titles are offered either as codes, e.g. from a string dictionary, or by name. Names are given
+ * codes of their own while they are retained, so at most {@code k} are remembered, and break any
+ * remaining tie by name. Since a title outside the top {@code k} of a subset is outside the top
+ * {@code k} of the whole, results over disjoint rows can be combined with {@link #addAll}.
+ */
+final class DistinctTopK {
+
+    private final int k;
+    private final boolean descending;
+    private double[] primary;
+    private long[] secondary;
+    private int[] title;
+    /** Heap slot plus one of each title code, 0 if the title is not retained. */
+    private int[] positions;
+    private int size;
+    /** Codes and names of the titles offered by name; null while none has been. */
+    private Map<String, Integer> codes;
+    private List<String> names;
+
+    DistinctTopK(int k) {
+        this(k, false);
+    }
+
+    /** With {@code descending}, larger primary values rank first; secondary is always ascending. */
+    DistinctTopK(int k, boolean descending) {
+        this(k, descending, 0);
+    }
+
+    /** For title codes below {@code titles}; larger codes grow the position index as they come. */
+    DistinctTopK(int k, boolean descending, int titles) {
+        this.k = Math.max(k, 0);
+        this.descending = descending;
+        int capacity = Math.min(this.k, 16);
+        this.primary = new double[capacity];
+        this.secondary = new long[capacity];
+        this.title = new int[capacity];
+        this.positions = new int[Math.max(titles, capacity)];
+    }
+
+    /** Offers the entry; {@code title} identifies the title, e.g. its dictionary code. */
+    void offer(double primary, long secondary, int title) {
+        if (k == 0 || size == k && !less(primary, secondary, name(title), 0)) {
+            return;
+        }
+        accept(primary, secondary, title);
+    }
+
+    /** Offers the entry for a title known only by name. */
+    void offer(double primary, long secondary, String name) {
+        if (names == null) {
+            codes = new HashMap<>();
+            names = new ArrayList<>();
+        }
+        if (k == 0 || size == k && !less(primary, secondary, name, 0)) {
+            return;
+        }
+        Integer code = codes.get(name);
+        if (code == null) {
+            if (size < k) {
+                code = names.size();
+                names.add(name);
+            } else {
+                // The new title evicts the worst one and takes over its code.
+                code = title[0];
+                codes.remove(names.set(code, name));
+                positions[code] = 0;
+            }
+            codes.put(name, code);
+        }
+        accept(primary, secondary, code);
+    }
+
+    /** Offers every entry {@code other} retained. */
+    DistinctTopK addAll(DistinctTopK other) {
+        for (int i = 0; i < other.size; i++) {
+            if (other.names != null) {
+                offer(other.primary[i], other.secondary[i], other.names.get(other.title[i]));
+            } else {
+                offer(other.primary[i], other.secondary[i], other.title[i]);
+            }
+        }
+        return this;
+    }
+
+    /** The retained title codes, best first. */
+    int[] titles() {
+        // Heap sort leaves the slots best first; reversed, they are a valid max-heap again.
+        int n = size;
+        for (int end = n - 1; end > 0; end--) {
+            swap(0, end);
+            size = end;
+            siftDown(0);
+        }
+        size = n;
+        int[] result = Arrays.copyOf(title, n);
+        for (int i = 0, j = n - 1; i < j; i++, j--) {
+            swap(i, j);
+        }
+        return result;
+    }
+
+    /** The retained titles offered by name, best first. */
+    List<String> titleNames() {
+        List<String> result = new ArrayList<>(size);
+        for (int code : titles()) {
+            result.add(names.get(code));
+        }
+        return result;
+    }
+
+    /** Forgets every entry, keeping the arrays for the next round of offers. */
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[title[i]] = 0;
+        }
+        size = 0;
+        if (names != null) {
+            codes.clear();
+            names.clear();
+        }
+    }
+
+    private void accept(double primary, long secondary, int title) {
+        if (title >= positions.length) {
+            positions = Arrays.copyOf(positions, Math.max(title + 1, 2 * positions.length));
+        }
+        int pos = positions[title] - 1;
+        if (pos >= 0) {
+            if (less(primary, secondary, name(title), pos)) {
+                set(pos, primary, secondary, title);
+                siftDown(pos);
+            }
+        } else if (size < k) {
+            if (size == this.title.length) {
+                int capacity = (int) Math.min(k, 2L * size);
+                this.primary = Arrays.copyOf(this.primary, capacity);
+                this.secondary = Arrays.copyOf(this.secondary, capacity);
+                this.title = Arrays.copyOf(this.title, capacity);
+            }
+            set(size, primary, secondary, title);
+            siftUp(size++);
+        } else {
+            positions[this.title[0]] = 0;
+            set(0, primary, secondary, title);
+            siftDown(0);
+        }
+    }
+
+    private String name(int title) {
+        return names == null ? null : names.get(title);
+    }
+
+    private boolean less(int i, int j) {
+        return less(primary[i], secondary[i], name(title[i]), j);
+    }
+
+    private boolean less(double p, long s, String name, int i) {
+        int c = descending ? Double.compare(primary[i], p) : Double.compare(p, primary[i]);
+        if (c == 0) {
+            c = Long.compare(s, secondary[i]);
+        }
+        if (c == 0 && name != null) {
+            c = name.compareTo(names.get(title[i]));
+        }
+        return c < 0;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!less(parent, i)) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int largest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && less(largest, left)) {
+                largest = left;
+            }
+            if (right < size && less(largest, right)) {
+                largest = right;
+            }
+            if (largest == i) {
+                return;
+            }
+            swap(i, largest);
+            i = largest;
+        }
+    }
+
+    private void set(int i, double p, long s, int t) {
+        primary[i] = p;
+        secondary[i] = s;
+        title[i] = t;
+        positions[t] = i + 1;
+    }
+
+    private void swap(int i, int j) {
+        double p = primary[i];
+        long s = secondary[i];
+        int t = title[i];
+        set(i, primary[j], secondary[j], title[j]);
+        set(j, p, s, t);
+    }
+}
@@ -0,0 +1,202 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Sorts more values than fit in memory. Values are buffered until their estimated size reaches
+ * the memory budget, then sorted and spilled to a temporary run file; {@link #forEachSorted}
+ * merges the runs. The I/O buffers of a merge, one per input and one for the output, share the
+ * same budget. Temporary files are deleted on {@link #close()}.
+ */
+final class ExternalSorter<T> implements AutoCloseable {
+
+    /** Serializes values to run files and estimates their in-memory size. */
+    interface Codec<T> {
+
+        void write(DataOutput out, T value) throws IOException;
+
+        T read(DataInput in) throws IOException;
+
+        /** Approximate heap bytes held by {@code value} while it is buffered. */
+        long bytes(T value);
+    }
+
+    private static final int MAX_IO_BUFFER = 64 << 10;
+    private static final int MIN_IO_BUFFER = 512;
+    /** Smallest budget that holds a two-way merge: two inputs and the output at the smallest buffers. */
+    static final long MIN_MEMORY_BUDGET = 3L * MIN_IO_BUFFER;
+    private static final long ENTRY_OVERHEAD = 32;
+
+    private final Comparator<? super T> order;
+    private final Codec<T> codec;
+    private final long memoryBudget;
+    private final Path tempDir;
+    private final int fanIn;
+    private final int ioBuffer;
+    private final List<Path> runs = new ArrayList<>();
+    private List<T> buffer = new ArrayList<>();
+    private long buffered;
+
+    ExternalSorter(Comparator<? super T> order, Codec<T> codec, long memoryBudget, Path tempDir) {
+        this.order = order;
+        this.codec = codec;
+        this.memoryBudget = memoryBudget;
+        this.tempDir = tempDir;
+        if (memoryBudget < MIN_MEMORY_BUDGET) {
+            throw new IllegalArgumentException("memory budget must be at least " + MIN_MEMORY_BUDGET
+                + " bytes: " + memoryBudget);
+        }
+        this.fanIn = (int) Math.max(2, Math.min(256, memoryBudget / MAX_IO_BUFFER));
+        this.ioBuffer = (int) Math.min(MAX_IO_BUFFER, memoryBudget / (fanIn + 1));
+    }
+
+    void add(T value) throws IOException {
+        buffer.add(value);
+        buffered += codec.bytes(value) + ENTRY_OVERHEAD;
+        // The run's output buffer is part of the budget while the values are written.
+        if (buffered + ioBuffer >= memoryBudget) {
+            spill();
+        }
+    }
+
+    /** Number of run files written so far. */
+    int spills() {
+        return runs.size();
+    }
+
+    /** Bytes held by the I/O buffers of the widest merge. */
+    long mergeBuffers() {
+        return (long) ioBuffer * (fanIn + 1);
+    }
+
+    /** Passes every added value to {@code action} in order. Can only be called once. */
+    void forEachSorted(Consumer<? super T> action) throws IOException {
+        buffer.sort(order);
+        if (runs.isEmpty()) {
+            buffer.forEach(action);
+            buffer = null;
+            return;
+        }
+        spill();
+        while (runs.size() > fanIn) {
+            List<Path> batch = new ArrayList<>(runs.subList(0, fanIn));
+            Path merged = Files.createTempFile(tempDir, "courses-run", ".bin");
+            runs.add(merged);
+            try (DataOutputStream out = output(merged)) {
+                merge(batch, value -> {
+                    try {
+                        codec.write(out, value);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            runs.remove(runs.size() - 1);
+            runs.subList(0, fanIn).clear();
+            runs.add(0, merged);
+            for (Path run : batch) {
+                Files.delete(run);
+            }
+        }
+        merge(runs, action);
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer = null;
+        for (Path run : runs) {
+            Files.deleteIfExists(run);
+        }
+        runs.clear();
+    }
+
+    private void spill() throws IOException {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        buffer.sort(order);
+        Path run = Files.createTempFile(tempDir, "courses-run", ".bin");
+        runs.add(run);
+        try (DataOutputStream out = output(run)) {
+            for (T value : buffer) {
+                codec.write(out, value);
+            }
+        }
+        buffer = new ArrayList<>();
+        buffered = 0;
+    }
+
+    private void merge(List<Path> inputs, Consumer<? super T> action) throws IOException {
+        List<DataInputStream> streams = new ArrayList<>(inputs.size());
+        try {
+            // Heads are ordered by value, then by run, so equal values keep their input order.
+            PriorityQueue<Head<T>> heads = new PriorityQueue<>((a, b) -> {
+                int c = order.compare(a.value, b.value);
+                return c != 0 ? c : Integer.compare(a.run, b.run);
+            });
+            for (int r = 0; r < inputs.size(); r++) {
+                DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(Files.newInputStream(inputs.get(r)), ioBuffer));
+                streams.add(in);
+                advance(heads, in, r);
+            }
+            while (!heads.isEmpty()) {
+                Head<T> head = heads.poll();
+                action.accept(head.value);
+                advance(heads, streams.get(head.run), head.run);
+            }
+        } finally {
+            for (DataInputStream in : streams) {
+                in.close();
+            }
+        }
+    }
+
+    private void advance(PriorityQueue<Head<T>> heads, DataInputStream in, int run) throws IOException {
+        in.mark(1);
+        if (in.read() < 0) {
+            return;
+        }
+        in.reset();
+        heads.add(new Head<>(codec.read(in), run));
+    }
+
+    private DataOutputStream output(Path file) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), ioBuffer));
+    }
+
+    static void writeString(DataOutput out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** Heap bytes of a string, roughly. */
+    static long bytes(String s) {
+        return 40L + s.length();
+    }
+
+    private record Head<T>(T value, int run) {
+    }
+}
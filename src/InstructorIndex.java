@@ -0,0 +1,117 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inverted index from instructor name to the titles they teach alone and the titles they
+ * co-teach, each sorted and free of duplicates. Names containing {@code '('} are skipped, as
+ * they always have been.
+ */
+final class InstructorIndex {
+
+    private static final List<List<String>> NO_COURSES = List.of(List.of(), List.of());
+
+    private final Map<String, List<List<String>>> postings;
+
+    private InstructorIndex(Map<String, List<List<String>>> postings) {
+        this.postings = postings;
+    }
+
+    static InstructorIndex of(CourseStore store) {
+        return new InstructorIndex(Map.of()).withRows(store, 0);
+    }
+
+    /** This index plus the rows of {@code store} from {@code from} on. */
+    InstructorIndex withRows(CourseStore store, int from) {
+        Builder builder = new Builder();
+        String[][] namesByCode = new String[store.strings.length][];
+        for (int i = from; i < store.size; i++) {
+            int code = store.instructors[i];
+            if (namesByCode[code] == null) {
+                namesByCode[code] = names(store.strings[code]);
+            }
+            builder.add(store.title(i), namesByCode[code], store.independent[i]);
+        }
+        return builder.build(this);
+    }
+
+    /** Every instructor with their {@code [independent, co-taught]} title lists. */
+    Map<String, List<List<String>>> all() {
+        Map<String, List<List<String>>> result = new HashMap<>(postings.size() * 4 / 3 + 1);
+        postings.forEach((name, courses) -> result.put(name, new ArrayList<>(courses)));
+        return result;
+    }
+
+    /** The {@code [independent, co-taught]} title lists of one instructor, empty if unknown. */
+    List<List<String>> lookup(String instructor) {
+        return new ArrayList<>(postings.getOrDefault(instructor, NO_COURSES));
+    }
+
+    static String[] names(String instructors) {
+        String[] tokens = instructors.split(",");
+        List<String> names = new ArrayList<>(tokens.length);
+        for (String token : tokens) {
+            if (!token.contains("(")) {
+                names.add(token.trim());
+            }
+        }
+        return names.toArray(new String[0]);
+    }
+
+    static final class Builder {
+
+        private final Map<String, List<List<String>>> titles = new HashMap<>();
+
+        Builder add(String title, String instructors, boolean independent) {
+            return add(title, names(instructors), independent);
+        }
+
+        Builder add(String title, String[] names, boolean independent) {
+            for (String name : names) {
+                titles.computeIfAbsent(name, k -> List.of(new ArrayList<>(), new ArrayList<>()))
+                    .get(independent ? 0 : 1).add(title);
+            }
+            return this;
+        }
+
+        /** Adds the titles collected by {@code other}. */
+        Builder addAll(Builder other) {
+            other.titles.forEach((name, lists) -> {
+                List<List<String>> mine = titles.computeIfAbsent(name,
+                    k -> List.of(new ArrayList<>(), new ArrayList<>()));
+                mine.get(0).addAll(lists.get(0));
+                mine.get(1).addAll(lists.get(1));
+            });
+            return this;
+        }
+
+        InstructorIndex build() {
+            return build(new InstructorIndex(Map.of()));
+        }
+
+        /** Merges the added titles into the postings of {@code base}. */
+        InstructorIndex build(InstructorIndex base) {
+            Map<String, List<List<String>>> postings = new HashMap<>(base.postings);
+            titles.forEach((name, lists) -> {
+                List<List<String>> before = base.postings.getOrDefault(name, NO_COURSES);
+                lists.get(0).addAll(before.get(0));
+                lists.get(1).addAll(before.get(1));
+                postings.put(name, List.of(sortedDistinct(lists.get(0)), sortedDistinct(lists.get(1))));
+            });
+            return new InstructorIndex(Collections.unmodifiableMap(postings));
+        }
+
+        private static List<String> sortedDistinct(List<String> titles) {
+            Collections.sort(titles);
+            List<String> distinct = new ArrayList<>(titles.size());
+            for (String title : titles) {
+                if (distinct.isEmpty() || !distinct.get(distinct.size() - 1).equals(title)) {
+                    distinct.add(title);
+                }
+            }
+            return List.copyOf(distinct);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Wall time and allocation of the phases of one load, collected for an {@link AnalyzerListener}.
+ * Tasks running on other threads count their own allocation, so work on a pool is included.
+ */
+final class LoadTrace {
+
+    private static final com.sun.management.ThreadMXBean THREADS = threads();
+
+    private final long[] nanos = new long[AnalyzerListener.Phase.values().length];
+    private final LongAdder[] allocated = new LongAdder[nanos.length];
+
+    LoadTrace() {
+        for (int p = 0; p < allocated.length; p++) {
+            allocated[p] = new LongAdder();
+        }
+    }
+
+    /** {@code task}, adding what it allocates on whichever thread runs it to {@code phase}. */
+    <T> Callable<T> measured(AnalyzerListener.Phase phase, Callable<T> task) {
+        return () -> {
+            long before = allocatedBytes();
+            try {
+                return task.call();
+            } finally {
+                allocated[phase.ordinal()].add(allocatedBytes() - before);
+            }
+        };
+    }
+
+    /** Adds time spent in {@code phase} and bytes allocated by the calling thread meanwhile. */
+    void add(AnalyzerListener.Phase phase, long nanos, long allocatedBytes) {
+        this.nanos[phase.ordinal()] += nanos;
+        allocated[phase.ordinal()].add(allocatedBytes);
+    }
+
+    void report(AnalyzerListener listener) {
+        for (AnalyzerListener.Phase phase : AnalyzerListener.Phase.values()) {
+            listener.phaseCompleted(phase, nanos[phase.ordinal()], allocated[phase.ordinal()].sum());
+        }
+    }
+
+    /** Bytes allocated so far by the calling thread, or 0 if the JVM does not track it. */
+    static long allocatedBytes() {
+        if (THREADS == null) {
+            return 0;
+        }
+        return Math.max(0, THREADS.getCurrentThreadAllocatedBytes());
+    }
+
+    private static com.sun.management.ThreadMXBean threads() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+            && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+            return threads;
+        }
+        return null;
+    }
+}
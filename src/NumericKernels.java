@@ -0,0 +1,48 @@
+/**
+ * The numeric inner loops over primitive columns: the range filters of {@code searchCourses} and
+ * the squared distances of {@code recommendCourses}. {@link #INSTANCE} is the SIMD implementation
+ * in {@code vector/VectorKernels.java} when that class was compiled in and the JVM runs with
+ * {@code --add-modules jdk.incubator.vector}, and {@link ScalarKernels} otherwise. The system
+ * property {@code courses.kernels} forces {@code scalar} or {@code vector}. Both give bit-for-bit
+ * the same results.
+ */
+interface NumericKernels {
+
+    NumericKernels INSTANCE = load(System.getProperty("courses.kernels", "auto"));
+
+    /**
+     * Sets bit {@code k - from} of {@code bits} exactly when {@code values[k] <= max}, for
+     * {@code k} in {@code [from, to)}; NaN never matches. Overwrites the first
+     * {@code (to - from + 63) / 64} words.
+     */
+    void atMost(double[] values, int from, int to, double max, long[] bits);
+
+    /** Like {@link #atMost}, for {@code values[k] >= min}. */
+    void atLeast(double[] values, int from, int to, double min, long[] bits);
+
+    /**
+     * {@code out[i - from]} is the squared distance from {@code (x[i], y[i], z[i])} to
+     * {@code (px, py, pz)}, summed in x, y, z order, for {@code i} in {@code [from, to)}.
+     */
+    void squaredDistances(double[] x, double[] y, double[] z, int from, int to, double px, double py, double pz,
+        double[] out);
+
+    /** The kernels named {@code scalar}, {@code vector} or {@code auto} (vector when available). */
+    static NumericKernels load(String name) {
+        if (!name.equals("scalar") && !name.equals("vector") && !name.equals("auto")) {
+            throw new IllegalArgumentException("Unknown kernels: " + name);
+        }
+        if (!name.equals("scalar") && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (NumericKernels) Class.forName("VectorKernels").getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                if (name.equals("vector")) {
+                    throw new IllegalStateException("Vector kernels are not compiled in", e);
+                }
+            }
+        } else if (name.equals("vector")) {
+            throw new IllegalStateException("Vector kernels need --add-modules jdk.incubator.vector");
+        }
+        return new ScalarKernels();
+    }
+}
@@ -1,63 +1,455 @@
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.LocalDate;
 
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.LinkedHashMap;
 import java.util.Comparator;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
-import java.util.function.Function;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.TreeMap;
 import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public class OnlineCoursesAnalyzer {
 
-    Supplier<Stream<Course>> courseStreamGenerator;
-    Set<String> courseNumbersSet = new HashSet<>();
-    Set<String> instructorsSet = new HashSet<>();
-    String csvFile;
+    final Supplier<Stream<Course>> courseStreamGenerator;
+    final String csvFile;
+    /** Loads materialized snapshots; {@code null} when every query re-reads the file. */
+    private final ExecutorService pool;
+    /** Answers the sorting queries within a memory budget; {@code null} unless streaming. */
+    private final StreamingCourseQueries streaming;
+    /** Answers every query with a parallel scan; {@code null} unless parallel. */
+    private final ParallelCourseQueries parallel;
+    private volatile CourseStore store;
+    /** The rows the re-reading and streaming queries scan, each time through one reused cursor. */
+    private final Supplier<Stream<CourseCursor>> source;
+    /** The bytes {@link #complete} was built from; only touched under the analyzer's lock. */
+    private CourseFileState fileState;
+    /**
+     * The rows of {@link #fileState}; {@link #store} adds the file's unterminated last row to
+     * them if there is one that parses. Only touched under the analyzer's lock.
+     */
+    private CourseStore complete;
+    private volatile boolean memoizeRecommendations;
+    private volatile QueryCache cache;
+    private volatile AnalyzerListener listener;
 
     public OnlineCoursesAnalyzer(String csvFile) {
+        this(csvFile, null, null, null);
+    }
+
+    private OnlineCoursesAnalyzer(String csvFile, ExecutorService pool, StreamingCourseQueries streaming,
+        ParallelCourseQueries parallel) {
+        this(csvFile, pool, streaming, parallel, () -> CourseCursor.rows(Paths.get(csvFile)));
+    }
+
+    private OnlineCoursesAnalyzer(String csvFile, ExecutorService pool, StreamingCourseQueries streaming,
+        ParallelCourseQueries parallel, Supplier<Stream<CourseCursor>> source) {
         this.csvFile = csvFile;
-        courseStreamGenerator = () -> {
+        this.pool = pool;
+        this.streaming = streaming;
+        this.parallel = parallel;
+        this.source = source;
+        courseStreamGenerator = () -> rows().map(CourseCursor::toCourse);
+    }
+
+    /**
+     * Creates an analyzer that parses {@code csvFile} once into an in-memory {@link CourseStore}
+     * and answers every query from it instead of re-reading the file.
+     */
+    public static OnlineCoursesAnalyzer materialized(String csvFile) {
+        return materialized(csvFile, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Like {@link #materialized(String)}, parsing the memory-mapped file in parallel on
+     * {@code pool}.
+     */
+    public static OnlineCoursesAnalyzer materialized(String csvFile, ExecutorService pool) {
+        return materialized(csvFile, pool, null);
+    }
+
+    /**
+     * Like {@link #materialized(String, ExecutorService)}, reporting the initial load and then
+     * every refresh and query to {@code listener}.
+     */
+    public static OnlineCoursesAnalyzer materialized(String csvFile, ExecutorService pool,
+        AnalyzerListener listener) {
+        OnlineCoursesAnalyzer analyzer = new OnlineCoursesAnalyzer(csvFile, pool, null, null);
+        analyzer.listener = listener;
+        synchronized (analyzer) {
             try {
-                return Files.lines(Paths.get(this.csvFile)).skip(1).map(a -> {
-                    try {
-                        return new Course(a);
-                    } catch (ParseException e) {
-                        throw new RuntimeException(e);
-                    }
-                });
+                analyzer.reload();
             } catch (IOException e) {
                 throw new RuntimeException(e);
             }
-        };
+        }
+        return analyzer;
     }
 
-    public Map<String, Integer> getPtcpCountByInst() {
-        return courseStreamGenerator.get().sorted((c1, c2) -> {
-            if (c1.institution.compareTo(c2.institution) > 0) {
-                return 1;
-            } else if (c1.institution.compareTo(c2.institution) == 0) {
-                return 0;
-            } else {
-                return -1;
+    /**
+     * Creates an analyzer for files larger than the heap. Like the default constructor it reads
+     * the file on every query, but no query holds more than its groups or its top K in memory:
+     * sorted output is buffered up to about {@code memoryBudgetBytes} and then spilled to
+     * temporary files for an external merge sort, whose I/O buffers fit the same budget. The
+     * budget must be at least {@value ExternalSorter#MIN_MEMORY_BUDGET} bytes.
+     */
+    public static OnlineCoursesAnalyzer streaming(String csvFile, long memoryBudgetBytes) {
+        if (memoryBudgetBytes < ExternalSorter.MIN_MEMORY_BUDGET) {
+            throw new IllegalArgumentException("memory budget must be at least " + ExternalSorter.MIN_MEMORY_BUDGET
+                + " bytes: " + memoryBudgetBytes);
+        }
+        return new OnlineCoursesAnalyzer(csvFile, null, new StreamingCourseQueries(
+            () -> CourseCursor.rows(Paths.get(csvFile)), memoryBudgetBytes,
+            Paths.get(System.getProperty("java.io.tmpdir"))), null);
+    }
+
+    /**
+     * Creates an analyzer that re-reads the file on every query like the default constructor,
+     * but scans it as row-aligned ranges on {@code executor}, e.g. a {@link ForkJoinPool} or a
+     * virtual-thread-per-task executor. Each range aggregates on its own and the partial
+     * results are merged in file order, so the answers are exactly the sequential ones.
+     */
+    public static OnlineCoursesAnalyzer parallel(String csvFile, ExecutorService executor) {
+        return parallel(csvFile, executor, ParallelCourseLoader.DEFAULT_CHUNK_SIZE);
+    }
+
+    static OnlineCoursesAnalyzer parallel(String csvFile, ExecutorService executor, long chunkSize) {
+        return new OnlineCoursesAnalyzer(csvFile, null, null,
+            new ParallelCourseQueries(Paths.get(csvFile), Objects.requireNonNull(executor), chunkSize));
+    }
+
+    /**
+     * Creates a materialized analyzer over a dataset split into many CSV files with the same
+     * header: every {@code .csv} file of a directory, or the files matching a glob such as
+     * {@code exports/MITx-*.csv}. The answers are those for the files concatenated in name order.
+     */
+    public static OnlineCoursesAnalyzer partitioned(String pathOrGlob, ExecutorService pool) {
+        return partitioned(pathOrGlob, pool, PartitionFilter.ALL);
+    }
+
+    /**
+     * Like {@link #partitioned(String, ExecutorService)}, keeping only the rows {@code filter}
+     * keeps. Files are parsed concurrently on {@code pool}, and a file whose statistics sidecar
+     * shows it holds no such rows is skipped unread. Such an analyzer cannot be refreshed.
+     */
+    public static OnlineCoursesAnalyzer partitioned(String pathOrGlob, ExecutorService pool,
+        PartitionFilter filter) {
+        OnlineCoursesAnalyzer analyzer = new OnlineCoursesAnalyzer(pathOrGlob, pool, null, null);
+        try {
+            analyzer.store = PartitionedDataset.load(PartitionedDataset.partitions(pathOrGlob), pool,
+                Objects.requireNonNull(filter));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return analyzer;
+    }
+
+    /**
+     * Opens a snapshot written by {@link #writeSnapshot(String)}. Nothing is parsed: the columns
+     * are copied straight out of the memory-mapped file after their checksums are verified, and
+     * each index is built the first time a query needs it. Such an analyzer cannot be
+     * {@link #refresh() refreshed}.
+     */
+    public static OnlineCoursesAnalyzer fromSnapshot(String snapshotFile) {
+        OnlineCoursesAnalyzer analyzer = new OnlineCoursesAnalyzer(snapshotFile, null, null, null);
+        try {
+            analyzer.store = CourseSnapshot.read(Paths.get(snapshotFile));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return analyzer;
+    }
+
+    /** Writes the current materialized data to {@code snapshotFile} for {@link #fromSnapshot(String)}. */
+    public void writeSnapshot(String snapshotFile) {
+        CourseStore snapshot = store;
+        if (snapshot == null) {
+            throw new IllegalStateException("only a materialized analyzer can write a snapshot");
+        }
+        try {
+            CourseSnapshot.write(snapshot, Paths.get(snapshotFile));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * An analyzer answering every query over only the courses launched from {@code from} up to
+     * but excluding {@code to}. A materialized analyzer takes those rows from its launch-date
+     * index without visiting the others. A streaming analyzer's window streams too, skipping the
+     * other rows on every query within the same memory budget; the other engines read the file
+     * once to collect the window. The window cannot be refreshed.
+     */
+    public OnlineCoursesAnalyzer launchedBetween(LocalDate from, LocalDate to) {
+        int fromDay = epochDay(from);
+        int toDay = epochDay(to);
+        if (streaming != null) {
+            Supplier<Stream<CourseCursor>> inWindow = () -> rows().filter(row -> {
+                int day = row.launchDay();
+                return day >= fromDay && day < toDay;
+            });
+            OnlineCoursesAnalyzer window = new OnlineCoursesAnalyzer(csvFile, null, streaming.over(inWindow), null,
+                inWindow);
+            window.listener = listener;
+            return window;
+        }
+        OnlineCoursesAnalyzer window = new OnlineCoursesAnalyzer(csvFile, null, null, null);
+        window.listener = listener;
+        CourseStore snapshot = store;
+        if (snapshot != null) {
+            window.store = snapshot.launchedBetween(fromDay, toDay);
+            return window;
+        }
+        CourseStore.Builder builder = new CourseStore.Builder();
+        try (Stream<CourseCursor> rows = rows()) {
+            rows.forEach(row -> {
+                int day = row.launchDay();
+                if (day >= fromDay && day < toDay) {
+                    builder.add(row.fields());
+                }
+            });
+        }
+        window.store = builder.build();
+        return window;
+    }
+
+    /** {@link #launchedBetween(LocalDate, LocalDate)} for the courses launched in {@code year}. */
+    public OnlineCoursesAnalyzer launchedIn(int year) {
+        return launchedBetween(LocalDate.of(year, 1, 1), LocalDate.of(year + 1, 1, 1));
+    }
+
+    /** {@code date} in days since 1970-01-01, clamped to the int range. */
+    static int epochDay(LocalDate date) {
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, date.toEpochDay()));
+    }
+
+    /**
+     * Brings a materialized analyzer up to date with its file. When rows were only appended, just
+     * those rows are parsed and folded into the aggregates; a truncated or rewritten file is
+     * loaded again from scratch. A last row still missing its newline is parsed again on every
+     * refresh until it is complete, and left out while it does not parse. Queries running
+     * meanwhile keep answering from the previous snapshot. Returns whether anything changed.
+     */
+    public synchronized boolean refresh() {
+        if (fileState == null) {
+            throw new IllegalStateException("only an analyzer materialized from a CSV file can be refreshed");
+        }
+        try {
+            Path path = Paths.get(csvFile);
+            CourseFileState next = fileState.appended(path);
+            if (next == null) {
+                reload();
+                return true;
+            }
+            if (next == fileState) {
+                return false;
+            }
+            load(next, fileState.length(), complete);
+            return true;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void reload() throws IOException {
+        load(CourseFileState.of(Paths.get(csvFile)), 0, null);
+    }
+
+    /**
+     * Parses the complete rows in bytes {@code [from, state.length())} of the file, appending
+     * them to {@code base} unless they start the file, plus the unterminated last row if there is
+     * one and it parses, and makes the result the current store with all of its indexes built.
+     * A last row that does not parse is reported to the listener, since it is most likely still
+     * being written, and tried again on the next refresh; a malformed complete row fails the load.
+     */
+    private void load(CourseFileState state, long from, CourseStore base) throws IOException {
+        AnalyzerListener observer = listener;
+        LoadTrace trace = observer == null ? null : new LoadTrace();
+        Path path = Paths.get(csvFile);
+        long chunkSize = ParallelCourseLoader.DEFAULT_CHUNK_SIZE;
+        int rowsBefore = base == null ? 0 : base.size;
+        CourseStore.Builder rows;
+        try {
+            rows = ParallelCourseLoader.parse(path, pool, chunkSize, from, state.length(),
+                base == null ? 1 : rowsBefore + 2L, trace);
+        } catch (CourseFormatException e) {
+            if (observer != null) {
+                observer.rowRejected(e);
+            }
+            throw e;
+        }
+        CourseStore.Builder last = null;
+        if (state.hasPartialRow()) {
+            try {
+                last = ParallelCourseLoader.parse(path, pool, chunkSize, state.length(), state.fileSize(),
+                    rowsBefore + rows.size() + 2L, trace);
+            } catch (CourseFormatException e) {
+                if (observer != null) {
+                    observer.rowRejected(e);
+                }
             }
-        }).collect(Collectors.groupingBy(course -> course.institution, Collectors.summingInt(c -> c.participant)));
+        }
+
+        long parsed = rows.size() + (last == null ? 0 : last.size());
+        long start = trace == null ? 0 : System.nanoTime();
+        long allocated = trace == null ? 0 : LoadTrace.allocatedBytes();
+        CourseStore complete;
+        if (base == null) {
+            // The last row is appended past the complete rows' own columns rather than to a copy.
+            complete = last == null ? rows.build() : rows.buildAppendable();
+        } else {
+            complete = rows.size() == 0 ? base : base.append(rows);
+        }
+        CourseStore visible = last == null ? complete.indexed() : complete.indexed().append(last).indexed();
+        if (trace != null) {
+            trace.add(AnalyzerListener.Phase.MATERIALIZE, System.nanoTime() - start,
+                LoadTrace.allocatedBytes() - allocated);
+            trace.report(observer);
+            observer.rowsLoaded(parsed);
+        }
+        fileState = state;
+        this.complete = complete;
+        store = visible;
+    }
+
+    /**
+     * Reports load phases and queries to {@code listener} from now on, or to nobody if it is
+     * {@code null}.
+     */
+    public void setListener(AnalyzerListener listener) {
+        this.listener = listener;
+    }
+
+    /** The rows of {@link #csvFile}, or of this window of it, read again on every call. */
+    private Stream<CourseCursor> rows() {
+        return source.get();
+    }
+
+    /**
+     * Caches query results, keeping the answers of the queries without arguments and the
+     * {@code maxEntries} most recently used answers of the others. Cached answers are unmodifiable
+     * and are all dropped as soon as the data changes: when a {@link #refresh()} of a materialized
+     * analyzer picks up new rows, or when the modification time or size of a file that is read on
+     * every query changes. 0 turns the cache off again.
+     */
+    public void cacheResults(int maxEntries) {
+        if (maxEntries < 0) {
+            throw new IllegalArgumentException("cache size must not be negative: " + maxEntries);
+        }
+        cache = maxEntries == 0 ? null : new QueryCache(this::dataVersion, maxEntries);
+    }
+
+    /**
+     * What cached answers depend on: the current store if there is one, which only changes on a
+     * refresh, and otherwise the file that every query reads again.
+     */
+    private Object dataVersion() {
+        CourseStore snapshot = store;
+        return snapshot != null ? snapshot : QueryCache.Stamp.of(Paths.get(csvFile));
+    }
+
+    /** Hit, miss, eviction and invalidation counts of the result cache, all zero without one. */
+    public CacheStats cacheStats() {
+        QueryCache current = cache;
+        return current == null ? new CacheStats(0, 0, 0, 0, 0) : current.stats();
+    }
+
+    /** Snapshot of the result cache counters; {@code size} is the number of cached answers. */
+    public record CacheStats(long hits, long misses, long evictions, long invalidations, int size) {
+    }
+
+    /**
+     * Answers {@code query} from the cache or {@code compute}, reporting to the listener if any.
+     * Only answers that go through the cache are passed through {@code freeze}, as they are shared
+     * between callers; without a cache every caller gets the collections {@code compute} built.
+     */
+    private <T> T answer(String query, List<?> args, Supplier<T> compute, UnaryOperator<T> freeze) {
+        QueryCache current = cache;
+        AnalyzerListener observer = listener;
+        if (observer == null) {
+            return current == null ? compute.get() : current.get(query, args, () -> freeze.apply(compute.get()));
+        }
+        long start = System.nanoTime();
+        long allocated = LoadTrace.allocatedBytes();
+        try {
+            return current == null ? compute.get() : current.get(query, args, () -> freeze.apply(compute.get()));
+        } catch (CourseFormatException e) {
+            observer.rowRejected(e);
+            throw e;
+        } finally {
+            observer.queryCompleted(query, System.nanoTime() - start, LoadTrace.allocatedBytes() - allocated);
+        }
+    }
+
+    private static <T> List<T> frozen(List<T> list) {
+        return Collections.unmodifiableList(list);
+    }
+
+    private static List<List<String>> frozenLists(List<List<String>> lists) {
+        return lists.stream().map(l -> frozen(l)).toList();
+    }
+
+    private static Map<String, List<List<String>>> frozenMap(Map<String, List<List<String>>> lists) {
+        lists.replaceAll((instructor, titles) -> frozenLists(titles));
+        return Collections.unmodifiableMap(lists);
+    }
+
+    public Map<String, Integer> getPtcpCountByInst() {
+        return answer("getPtcpCountByInst", List.of(), this::ptcpCountByInst, Collections::unmodifiableMap);
+    }
+
+    private Map<String, Integer> ptcpCountByInst() {
+        CourseStore snapshot = store;
+        if (snapshot != null) {
+            return snapshot.participantCounts().byInstitution();
+        }
+        if (parallel != null) {
+            return parallel.ptcpCountByInst();
+        }
+        try (Stream<CourseCursor> rows = rows()) {
+            return rows.collect(Collectors.groupingBy(CourseCursor::institution, TreeMap::new,
+                Collectors.summingInt(CourseCursor::participant)));
+        }
     }
 
     public Map<String, Integer> getPtcpCountByInstAndSubject() {
-        return courseStreamGenerator.get()
-            .collect(Collectors.groupingBy(
-                course -> course.institution + "-" + course.courseSubject, Collectors.summingInt(course -> course.participant))).entrySet().stream()
+        return answer("getPtcpCountByInstAndSubject", List.of(), this::ptcpCountByInstAndSubject,
+            Collections::unmodifiableMap);
+    }
+
+    private Map<String, Integer> ptcpCountByInstAndSubject() {
+        CourseStore snapshot = store;
+        if (snapshot != null) {
+            return snapshot.participantCounts().byInstitutionAndSubject();
+        }
+        Map<String, Integer> sums;
+        if (parallel != null) {
+            sums = parallel.ptcpCountByInstAndSubject();
+        } else {
+            // Grouped by institution, then subject, so the combined key is built once per group
+            // rather than once per row.
+            Map<String, Map<String, Integer>> bySubject;
+            try (Stream<CourseCursor> rows = rows()) {
+                bySubject = rows.collect(Collectors.groupingBy(CourseCursor::institution, Collectors.groupingBy(
+                    CourseCursor::courseSubject, Collectors.summingInt(CourseCursor::participant))));
+            }
+            Map<String, Integer> merged = new HashMap<>();
+            bySubject.forEach((institution, subjects) -> subjects.forEach((subject, sum) ->
+                merged.merge(institution + "-" + subject, sum, Integer::sum)));
+            sums = merged;
+        }
+        return sums.entrySet().stream()
             .sorted((o1, o2) -> {
                 if (!Objects.equals(o1.getValue(), o2.getValue())) {
                     return Integer.compare(o2.getValue(), o1.getValue());
@@ -69,98 +461,165 @@ public class OnlineCoursesAnalyzer {
     }
 
     public Map<String, List<List<String>>> getCourseListOfInstructor() {
-        List<Course> courses = courseStreamGenerator.get()
-            .sorted(Comparator.comparing(o -> o.courseTitle)).toList();
-        return instructorsSet.stream()
-            .collect(Collectors.toMap(s -> s, new Function<String, List<List<String>>>() {
-
-                public boolean contain(Course c, String s) {
-                    String[] strings = c.instructors.split(",");
-                    for (String string : strings) {
-                        if (string.trim().equals(s)) {
-                            return true;
-                        }
-                    }
-                    return false;
-                }
+        return answer("getCourseListOfInstructor", List.of(), this::courseListOfInstructor,
+            OnlineCoursesAnalyzer::frozenMap);
+    }
 
-                @Override
-                public List<List<String>> apply(String s) {
-                    List<List<String>> containCourse = new ArrayList<>(5);
-
-                    List<String> independent = new ArrayList<>();
-                    List<String> notIndependent = new ArrayList<>();
-
-                    for (Course cours : courses) {
-                        if (this.contain(cours, s)) {
-                            if (cours.isIndependent) {
-                                independent.add(cours.courseTitle);
-                            } else {
-                                notIndependent.add(cours.courseTitle);
-                            }
-                        }
-                    }
-                    containCourse.add(independent.stream().distinct().toList());
-                    containCourse.add(notIndependent.stream().distinct().toList());
-                    return containCourse;
-                }
-            }));
+    private Map<String, List<List<String>>> courseListOfInstructor() {
+        if (streaming != null) {
+            try {
+                return streaming.courseListOfInstructor();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return instructorIndex().all();
+    }
+
+    /**
+     * The titles {@code instructor} teaches independently and with others, in the same form as
+     * the values of {@link #getCourseListOfInstructor()}; both lists are empty for an unknown name.
+     */
+    public List<List<String>> getCourseListOfInstructor(String instructor) {
+        return answer("getCourseListOfInstructor", Arrays.asList(instructor),
+            () -> courseListOfInstructor(instructor), OnlineCoursesAnalyzer::frozenLists);
+    }
+
+    private List<List<String>> courseListOfInstructor(String instructor) {
+        if (streaming != null) {
+            return streaming.courseListOfInstructor(instructor);
+        }
+        return instructorIndex().lookup(instructor);
+    }
+
+    private InstructorIndex instructorIndex() {
+        CourseStore snapshot = store;
+        if (snapshot != null) {
+            return snapshot.instructorIndex();
+        }
+        if (parallel != null) {
+            return parallel.instructorIndex();
+        }
+        InstructorIndex.Builder builder = new InstructorIndex.Builder();
+        try (Stream<CourseCursor> rows = rows()) {
+            rows.forEach(row -> {
+                String instructors = row.instructors();
+                builder.add(row.courseTitle(), instructors, !instructors.contains(","));
+            });
+        }
+        return builder.build();
     }
 
     //4
     public List<String> getCourses(int topK, String by) {
-        return switch (by) {
-            case "hours" -> courseStreamGenerator.get()
-                .sorted((o1, o2) -> o2.totalCourseHour.compareTo(o1.totalCourseHour))
-                .map(c -> c.courseTitle).distinct().limit(topK).collect(Collectors.toList());
-            case "participants" -> courseStreamGenerator.get()
-                .sorted((o1, o2) -> o2.participant.compareTo(o1.participant))
-                .map(c -> c.courseTitle).distinct().limit(topK).collect(Collectors.toList());
-            default -> null;
-        };
+        if (topK < 0) {
+            throw new IllegalArgumentException(Integer.toString(topK));
+        }
+        CourseMetric metric = CourseMetric.of(by);
+        if (metric == null) {
+            return null;
+        }
+        return answer("getCourses", List.of(topK, metric), () -> courses(topK, metric),
+            OnlineCoursesAnalyzer::frozen);
+    }
+
+    private List<String> courses(int topK, CourseMetric metric) {
+        CourseStore snapshot = store;
+        if (snapshot != null) {
+            return snapshot.courses(topK, metric);
+        }
+        if (streaming != null) {
+            return streaming.courses(topK, metric);
+        }
+        if (parallel != null) {
+            return parallel.courses(topK, metric);
+        }
+        DistinctTopK top = new DistinctTopK(topK, true);
+        try (Stream<CourseCursor> rows = rows()) {
+            rows.forEach(row -> top.offer(metric.valueOf(row), row.row(), row.courseTitle()));
+        }
+        return top.titleNames();
     }
 
     //5
     public List<String> searchCourses(String courseSubject, double percentAudited,
         double totalCourseHours) {
-        return courseStreamGenerator.get()
-            .filter(c -> c.courseSubject.toLowerCase().contains(courseSubject.toLowerCase()))
-            .filter(c -> c.auditedProportion >= percentAudited)
-            .filter(c -> c.totalCourseHour <= totalCourseHours)
-            .sorted(Comparator.comparing(course -> course.courseTitle)).map(c -> c.courseTitle)
-            .distinct().toList();
+        return answer("searchCourses", Arrays.asList(courseSubject, percentAudited, totalCourseHours),
+            () -> search(courseSubject, percentAudited, totalCourseHours), OnlineCoursesAnalyzer::frozen);
+    }
+
+    private List<String> search(String courseSubject, double percentAudited, double totalCourseHours) {
+        CourseStore snapshot = store;
+        if (snapshot != null) {
+            return snapshot.subjectIndex().search(courseSubject, percentAudited, totalCourseHours);
+        }
+        if (parallel != null) {
+            return parallel.searchCourses(courseSubject, percentAudited, totalCourseHours);
+        }
+        if (streaming != null) {
+            try {
+                return streaming.searchCourses(courseSubject, percentAudited, totalCourseHours);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        String needle = courseSubject.toLowerCase();
+        try (Stream<CourseCursor> rows = rows()) {
+            return rows
+                .filter(row -> row.courseSubject().toLowerCase().contains(needle))
+                .filter(row -> row.auditedProportion() >= percentAudited)
+                .filter(row -> row.totalCourseHour() <= totalCourseHours)
+                .map(CourseCursor::courseTitle).sorted().distinct().collect(Collectors.toList());
+        }
     }
 
     //6
     public List<String> recommendCourses(int age, int gender, int isBachelorOrHigher) {
-        List<Course> courses = courseStreamGenerator.get().toList();
-        Map<String, Course> numCourse = courseNumbersSet.stream()
-            .collect(Collectors.toMap(s -> s, s -> {
-                List<Course> sameCourse = new ArrayList<>();
-                courses.forEach(c -> {
-                    if (c.courseNumber.equals(s)) {
-                        sameCourse.add(c);
-                    }
-                });
-                sameCourse.sort((o1, o2) -> o2.launchDate.compareTo(o1.launchDate));
-                double averageMedianAge = 0;
-                double averageMale = 0;
-                double averageIsB = 0;
-                for (Course course : sameCourse) {
-                    averageMedianAge += course.medianAge;
-                    averageMale += course.maleProportion;
-                    averageIsB += course.bachelorDegreeOrHigherProportion;
-                }
-                sameCourse.get(0).averageMedianAge = averageMedianAge / sameCourse.size();
-                sameCourse.get(0).averageMale = averageMale / sameCourse.size();
-                sameCourse.get(0).averageisB = averageIsB / sameCourse.size();
-                return sameCourse.get(0);
-            }));
-        numCourse.values()
-            .forEach(course -> course.similarity = Math.pow(age - course.averageMedianAge, 2) + Math.pow(
-                gender * 100 - course.averageMale, 2) + Math.pow(
-                isBachelorOrHigher * 100 - course.averageisB, 2));
-        return numCourse.values().stream()
+        return answer("recommendCourses", List.of(age, gender, isBachelorOrHigher),
+            () -> recommend(age, gender, isBachelorOrHigher), OnlineCoursesAnalyzer::frozen);
+    }
+
+    private List<String> recommend(int age, int gender, int isBachelorOrHigher) {
+        CourseStore snapshot = store;
+        if (snapshot != null) {
+            return snapshot.profiles().recommend(age, gender, isBachelorOrHigher);
+        }
+        if (parallel != null) {
+            return parallel.recommendCourses(age, gender, isBachelorOrHigher);
+        }
+        if (streaming != null) {
+            try {
+                return streaming.recommendCourses(age, gender, isBachelorOrHigher);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        Map<String, List<Course>> sameCourses;
+        try (Stream<Course> courses = courseStreamGenerator.get()) {
+            sameCourses = courses.collect(Collectors.groupingBy(c -> c.courseNumber));
+        }
+        record Candidate(String courseTitle, double similarity) {
+        }
+
+        List<Candidate> candidates = new ArrayList<>(sameCourses.size());
+        for (List<Course> sameCourse : sameCourses.values()) {
+            sameCourse.sort((o1, o2) -> Integer.compare(o2.launchDay, o1.launchDay));
+            double averageMedianAge = 0;
+            double averageMale = 0;
+            double averageIsB = 0;
+            for (Course course : sameCourse) {
+                averageMedianAge += course.medianAge;
+                averageMale += course.maleProportion;
+                averageIsB += course.bachelorDegreeOrHigherProportion;
+            }
+            averageMedianAge /= sameCourse.size();
+            averageMale /= sameCourse.size();
+            averageIsB /= sameCourse.size();
+            candidates.add(new Candidate(sameCourse.get(0).courseTitle,
+                Math.pow(age - averageMedianAge, 2) + Math.pow(gender * 100 - averageMale, 2)
+                    + Math.pow(isBachelorOrHigher * 100 - averageIsB, 2)));
+        }
+        return candidates.stream()
             .sorted((o1, o2) -> {
                 if (o1.similarity != o2.similarity) {
                     return Double.compare(o1.similarity, o2.similarity);
@@ -170,73 +629,123 @@ public class OnlineCoursesAnalyzer {
             }).map(c -> c.courseTitle).distinct().limit(10).collect(Collectors.toList());
     }
 
+    /**
+     * {@link #recommendCourses(int, int, int)} for many profiles at once: the answer for profile
+     * {@code i} is built from {@code ages[i]}, {@code genders[i]} and {@code isBachelorOrHigher[i]}.
+     * Identical profiles are answered once and share one unmodifiable list. A materialized
+     * analyzer scores all distinct profiles against its course profiles in a single blocked pass;
+     * the other engines answer each distinct profile with one query.
+     */
+    public List<List<String>> recommendCourses(int[] ages, int[] genders, int[] isBachelorOrHigher) {
+        if (ages.length != genders.length || ages.length != isBachelorOrHigher.length) {
+            throw new IllegalArgumentException("profile arrays differ in length: " + ages.length + ", "
+                + genders.length + ", " + isBachelorOrHigher.length);
+        }
+        Map<CourseProfiles.Profile, Integer> distinct = new HashMap<>();
+        int[] slot = new int[ages.length];
+        for (int i = 0; i < ages.length; i++) {
+            CourseProfiles.Profile profile = new CourseProfiles.Profile(ages[i], genders[i], isBachelorOrHigher[i]);
+            Integer k = distinct.get(profile);
+            if (k == null) {
+                k = distinct.size();
+                distinct.put(profile, k);
+            }
+            slot[i] = k;
+        }
+        int[] distinctAges = new int[distinct.size()];
+        int[] distinctGenders = new int[distinct.size()];
+        int[] distinctDegrees = new int[distinct.size()];
+        distinct.forEach((profile, k) -> {
+            distinctAges[k] = profile.age();
+            distinctGenders[k] = profile.gender();
+            distinctDegrees[k] = profile.isBachelorOrHigher();
+        });
 
-    class Course {
-
-        double averageMedianAge;
-        double averageMale;
-        double averageisB;
-        double similarity;
-        boolean isIndependent;
-        String institution;
-        String courseNumber;
-        Date launchDate;
-        String courseTitle;
-        String instructors;
-        String courseSubject;
-        Integer year;
-        Integer honorCodeCertificates;
-        Integer participant;
-        Integer auditedNum;
-        Integer certifiedNum;
-        Double auditedProportion;
-        Double certifiedProportion;
-        Double certifiedAmongAuditedProportion;
-        Double playedVideo;
-        Double postedInForum;
-        Double gradeHigherThanZero;
-        Double totalCourseHour;
-        Double medianHoursForCertification;
-        Double medianAge;
-        Double maleProportion;
-        Double femaleProportion;
-        Double bachelorDegreeOrHigherProportion;
-
-        public Course(String string) throws ParseException {
-            String[] strs = string.split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)", -1);
-            SimpleDateFormat format = new SimpleDateFormat("MM/dd/yyyy");
-
-            this.institution = strs[0];
-            this.courseNumber = strs[1];
-            this.launchDate = format.parse(strs[2]);
-            this.courseTitle = strs[3].replace("\"", "").trim();
-            this.instructors = strs[4].replace("\"", "");
-            this.courseSubject = strs[5].replace("\"", "");
-            this.year = Integer.parseInt(strs[6]);
-            this.honorCodeCertificates = Integer.parseInt(strs[7]);
-            this.participant = Integer.parseInt(strs[8]);
-            this.auditedNum = Integer.parseInt(strs[9]);
-            this.certifiedNum = Integer.parseInt(strs[10]);
-            this.auditedProportion = Double.parseDouble(strs[11]);
-            this.certifiedProportion = Double.parseDouble(strs[12]);
-            this.certifiedAmongAuditedProportion = Double.parseDouble(strs[13]);
-            this.playedVideo = Double.parseDouble(strs[14]);
-            this.postedInForum = Double.parseDouble(strs[15]);
-            this.gradeHigherThanZero = Double.parseDouble(strs[16]);
-            this.totalCourseHour = Double.parseDouble(strs[17]);
-            this.medianHoursForCertification = Double.parseDouble(strs[18]);
-            this.medianAge = Double.parseDouble(strs[19]);
-            this.maleProportion = Double.parseDouble(strs[20]);
-            this.femaleProportion = Double.parseDouble(strs[21]);
-            this.bachelorDegreeOrHigherProportion = Double.parseDouble(strs[22]);
-
-            courseNumbersSet.add(this.courseNumber);
-            String[] instructors = this.instructors.split(",");
-            for (String instructor : instructors) {
-                if (!instructor.contains("(")) {
-                    instructorsSet.add(instructor.trim());
-                }
+        List<List<String>> answers;
+        CourseStore snapshot = store;
+        if (snapshot != null) {
+            answers = snapshot.profiles().recommend(distinctAges, distinctGenders, distinctDegrees,
+                memoizeRecommendations);
+        } else {
+            answers = new ArrayList<>(distinctAges.length);
+            for (int k = 0; k < distinctAges.length; k++) {
+                answers.add(frozen(recommendCourses(distinctAges[k], distinctGenders[k], distinctDegrees[k])));
             }
+        }
+        List<List<String>> result = new ArrayList<>(ages.length);
+        for (int i = 0; i < ages.length; i++) {
+            result.add(answers.get(slot[i]));
+        }
+        return result;
+    }
+
+    /**
+     * Whether batch recommendations of a materialized analyzer keep their answers per profile.
+     * The memo belongs to the current data and is dropped when a refresh picks up new rows.
+     */
+    public void memoizeRecommendations(boolean enabled) {
+        memoizeRecommendations = enabled;
+    }
+
+
+    /** One parsed CSV row. Immutable and primitive, so rows can be shared freely between threads. */
+    static final class Course {
+
+        final boolean isIndependent;
+        final String institution;
+        final String courseNumber;
+        /** Days since 1970-01-01. */
+        final int launchDay;
+        final String courseTitle;
+        final String instructors;
+        final String courseSubject;
+        final int year;
+        final int honorCodeCertificates;
+        final int participant;
+        final int auditedNum;
+        final int certifiedNum;
+        final double auditedProportion;
+        final double certifiedProportion;
+        final double certifiedAmongAuditedProportion;
+        final double playedVideo;
+        final double postedInForum;
+        final double gradeHigherThanZero;
+        final double totalCourseHour;
+        final double medianHoursForCertification;
+        final double medianAge;
+        final double maleProportion;
+        final double femaleProportion;
+        final double bachelorDegreeOrHigherProportion;
+
+        public Course(String string) {
+            this(new CourseTokenizer().next(string));
+        }
+
+        Course(CourseTokenizer fields) {
+            this.institution = fields.raw(0);
+            this.courseNumber = fields.raw(1);
+            this.launchDay = fields.epochDayField(2);
+            this.courseTitle = fields.unquoted(3).trim();
+            this.instructors = fields.unquoted(4);
+            this.courseSubject = fields.unquoted(5);
+            this.year = fields.intField(6);
+            this.honorCodeCertificates = fields.intField(7);
+            this.participant = fields.intField(8);
+            this.auditedNum = fields.intField(9);
+            this.certifiedNum = fields.intField(10);
+            this.auditedProportion = fields.doubleField(11);
+            this.certifiedProportion = fields.doubleField(12);
+            this.certifiedAmongAuditedProportion = fields.doubleField(13);
+            this.playedVideo = fields.doubleField(14);
+            this.postedInForum = fields.doubleField(15);
+            this.gradeHigherThanZero = fields.doubleField(16);
+            this.totalCourseHour = fields.doubleField(17);
+            this.medianHoursForCertification = fields.doubleField(18);
+            this.medianAge = fields.doubleField(19);
+            this.maleProportion = fields.doubleField(20);
+            this.femaleProportion = fields.doubleField(21);
+            this.bachelorDegreeOrHigherProportion = fields.doubleField(22);
+
             if (this.instructors.contains(",")) {
                 this.isIndependent = false;
             } else {
@@ -245,4 +754,3 @@ public class OnlineCoursesAnalyzer {
         }
     }
 }
-
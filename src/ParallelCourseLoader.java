@@ -0,0 +1,278 @@
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.function.IntFunction;
+
+/**
+ * Splits a course CSV into row-aligned byte ranges and hands the rows of each range to its
+ * own partial state on a caller-supplied executor; any {@link ExecutorService} works, from a
+ * {@link java.util.concurrent.ForkJoinPool} to a virtual-thread-per-task executor. Ranges
+ * never start inside a quoted field and partials come back in file order, so merging them in
+ * list order is deterministic. Loading a {@link CourseStore} this way gives a store identical
+ * to {@link CourseStore#load(Path)}.
+ * <p>
+ * Rows end at {@code \n}, {@code \r\n} or a lone {@code \r} outside quotes; a quoted field may
+ * span lines. Every one of those terminators, quoted or not, counts as a line, so the line
+ * numbers given to {@link CourseCursor} are physical lines of the file.
+ */
+final class ParallelCourseLoader {
+
+    static final long DEFAULT_CHUNK_SIZE = 8L << 20;
+    private static final long MAX_CHUNK_SIZE = 1L << 30;
+    private static final int SCAN_BLOCK = 64 << 10;
+
+    private ParallelCourseLoader() {
+    }
+
+    static CourseStore load(Path csvFile, ExecutorService executor) throws IOException {
+        return load(csvFile, executor, DEFAULT_CHUNK_SIZE);
+    }
+
+    static CourseStore load(Path csvFile, ExecutorService executor, long chunkSize) throws IOException {
+        return parse(csvFile, executor, chunkSize, 0, Files.size(csvFile), 1).build();
+    }
+
+    /**
+     * Parses the rows in bytes {@code [from, to)} of {@code csvFile}. {@code from} must be the
+     * start of a row, or 0 for the header, and {@code firstLine} is its line number.
+     */
+    static CourseStore.Builder parse(Path csvFile, ExecutorService executor, long chunkSize, long from, long to,
+        long firstLine) throws IOException {
+        return parse(csvFile, executor, chunkSize, from, to, firstLine, null);
+    }
+
+    /** Like {@link #parse(Path, ExecutorService, long, long, long, long)}, recording into {@code trace}. */
+    static CourseStore.Builder parse(Path csvFile, ExecutorService executor, long chunkSize, long from, long to,
+        long firstLine, LoadTrace trace) throws IOException {
+        List<CourseStore.Builder> parts = scan(csvFile, executor, chunkSize, from, to, firstLine,
+            range -> new CourseStore.Builder(), (builder, row) -> builder.add(row.fields()), trace);
+        long start = trace == null ? 0 : System.nanoTime();
+        long allocated = trace == null ? 0 : LoadTrace.allocatedBytes();
+        CourseStore.Builder merged = parts.get(0);
+        for (int k = 1; k < parts.size(); k++) {
+            merged.addAll(parts.get(k));
+        }
+        if (trace != null) {
+            trace.add(AnalyzerListener.Phase.MATERIALIZE, System.nanoTime() - start,
+                LoadTrace.allocatedBytes() - allocated);
+        }
+        return merged;
+    }
+
+    /**
+     * Feeds every row of bytes {@code [from, to)} to {@code sink}, together with the partial
+     * state {@code partial} created for that row's range, and returns the partials in file
+     * order. Each partial is only touched by the task that scans its range.
+     */
+    static <P> List<P> scan(Path csvFile, ExecutorService executor, long chunkSize, long from, long to,
+        long firstLine, IntFunction<P> partial, BiConsumer<P, CourseCursor> sink) throws IOException {
+        return scan(csvFile, executor, chunkSize, from, to, firstLine, partial, sink, null);
+    }
+
+    private static <P> List<P> scan(Path csvFile, ExecutorService executor, long chunkSize, long from, long to,
+        long firstLine, IntFunction<P> partial, BiConsumer<P, CourseCursor> sink, LoadTrace trace)
+        throws IOException {
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(csvFile, StandardOpenOption.READ)) {
+            long size = to - from;
+            chunkSize = Math.max(1, Math.min(chunkSize, MAX_CHUNK_SIZE));
+            int segments = (int) Math.max(1, (size + chunkSize - 1) / chunkSize);
+            long[] offsets = new long[segments + 1];
+            for (int k = 0; k <= segments; k++) {
+                offsets[k] = from + Math.min(size, k * chunkSize);
+            }
+
+            // Quote parity and line count of every raw segment, so each range can find its
+            // first row boundary without scanning the file from the start.
+            List<Callable<long[]>> counts = new ArrayList<>(segments);
+            for (int k = 0; k < segments; k++) {
+                int segment = k;
+                counts.add(measured(trace, AnalyzerListener.Phase.READ, () -> {
+                    MappedByteBuffer bytes = map(channel, offsets[segment], offsets[segment + 1]);
+                    long q = 0;
+                    long n = 0;
+                    while (bytes.hasRemaining()) {
+                        byte b = bytes.get();
+                        if (b == '"') {
+                            q++;
+                        } else if (b == '\n' || b == '\r' && !newlineAt(channel, bytes, offsets[segment + 1])) {
+                            n++;
+                        }
+                    }
+                    return new long[] {q & 1, n};
+                }));
+            }
+            List<long[]> quotesAndNewlines = invokeAll(executor, counts);
+
+            long[] starts = new long[segments + 1];
+            long[] firstLines = new long[segments + 1];
+            starts[0] = from;
+            firstLines[0] = firstLine;
+            if (from == 0) {
+                long[] header = scanToRowEnd(channel, 0, 0, to);
+                starts[0] = header[0];
+                firstLines[0] = firstLine + header[1];
+            }
+            int parity = 0;
+            long lines = 0;
+            for (int k = 1; k < segments; k++) {
+                parity ^= (int) quotesAndNewlines.get(k - 1)[0];
+                lines += quotesAndNewlines.get(k - 1)[1];
+                long[] boundary = scanToRowEnd(channel, offsets[k], parity, to);
+                if (boundary[0] <= starts[k - 1]) {
+                    starts[k] = starts[k - 1];
+                    firstLines[k] = firstLines[k - 1];
+                } else {
+                    starts[k] = boundary[0];
+                    firstLines[k] = firstLine + lines + boundary[1];
+                }
+            }
+            starts[segments] = to;
+            if (trace != null) {
+                long now = System.nanoTime();
+                trace.add(AnalyzerListener.Phase.READ, now - start, 0);
+                start = now;
+            }
+
+            List<Callable<P>> ranges = new ArrayList<>(segments);
+            for (int k = 0; k < segments; k++) {
+                int range = k;
+                ranges.add(measured(trace, AnalyzerListener.Phase.PARSE, () -> {
+                    P state = partial.apply(range);
+                    scanRange(channel, starts[range], starts[range + 1], firstLines[range], state, sink);
+                    return state;
+                }));
+            }
+            List<P> partials = invokeAll(executor, ranges);
+            if (trace != null) {
+                trace.add(AnalyzerListener.Phase.PARSE, System.nanoTime() - start, 0);
+            }
+            return partials;
+        }
+    }
+
+    private static <T> Callable<T> measured(LoadTrace trace, AnalyzerListener.Phase phase, Callable<T> task) {
+        return trace == null ? task : trace.measured(phase, task);
+    }
+
+    /**
+     * Finds the end of the row containing {@code from}, given the quote parity at {@code from}.
+     * Returns the offset just past the row terminator, or {@code to}, and the number of line
+     * terminators consumed.
+     */
+    private static long[] scanToRowEnd(FileChannel channel, long from, int parity, long to)
+        throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(SCAN_BLOCK);
+        long position = from;
+        long newlines = 0;
+        while (true) {
+            block.clear().limit((int) Math.min(SCAN_BLOCK, Math.max(0, to - position)));
+            int read = block.hasRemaining() ? channel.read(block, position) : 0;
+            if (read <= 0) {
+                return new long[] {to, newlines};
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = block.get(i);
+                if (b == '"') {
+                    parity ^= 1;
+                } else if (b == '\n' || b == '\r' && !(i + 1 < read ? block.get(i + 1) == '\n'
+                    : newlineAt(channel, position + i + 1))) {
+                    newlines++;
+                    if (parity == 0) {
+                        return new long[] {position + i + 1, newlines};
+                    }
+                }
+            }
+            position += read;
+        }
+    }
+
+    /** Whether the next byte of {@code bytes}, or the file byte at {@code end} once they run out, is a newline. */
+    private static boolean newlineAt(FileChannel channel, MappedByteBuffer bytes, long end) throws IOException {
+        return bytes.hasRemaining() ? bytes.get(bytes.position()) == '\n' : newlineAt(channel, end);
+    }
+
+    private static boolean newlineAt(FileChannel channel, long position) throws IOException {
+        ByteBuffer one = ByteBuffer.allocate(1);
+        return channel.read(one, position) == 1 && one.get(0) == '\n';
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long from, long to) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+    }
+
+    private static <P> void scanRange(FileChannel channel, long from, long to, long firstLine, P state,
+        BiConsumer<P, CourseCursor> sink) throws IOException {
+        if (from >= to) {
+            return;
+        }
+        CharBuffer text = StandardCharsets.UTF_8.newDecoder().decode(map(channel, from, to));
+        char[] chars = text.array();
+        int end = text.arrayOffset() + text.limit();
+        CourseCursor cursor = new CourseCursor();
+        long line = firstLine;
+        long rowLine = firstLine;
+        int pos = text.arrayOffset();
+        boolean quoted = false;
+        for (int i = pos; i < end; i++) {
+            char c = chars[i];
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == '\n' || c == '\r') {
+                int eol = i;
+                if (c == '\r' && i + 1 < end && chars[i + 1] == '\n') {
+                    i++;
+                }
+                if (!quoted) {
+                    sink.accept(state, cursor.tokenize(chars, pos, eol, rowLine));
+                    pos = i + 1;
+                    rowLine = line + 1;
+                }
+                line++;
+            }
+        }
+        if (pos < end) {
+            sink.accept(state, cursor.tokenize(chars, pos, end, rowLine));
+        }
+    }
+
+    /** Runs {@code tasks} and returns their results in order, rethrowing the first failure as is. */
+    static <T> List<T> invokeAll(ExecutorService executor, List<Callable<T>> tasks) throws IOException {
+        try {
+            List<T> results = new ArrayList<>(tasks.size());
+            for (Future<T> future : executor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while scanning");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IOException(cause);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.function.BiConsumer;
+import java.util.function.IntFunction;
+
+/**
+ * Answers the queries by re-reading the file as row-aligned ranges on a caller-supplied
+ * executor. Every range aggregates into its own partial state, e.g. per-range sums or a per-range
+ * top K, and the partials are merged in file order. Sums of doubles are only ever taken in the
+ * sequential order, so the answers are identical to the sequential engine's.
+ */
+final class ParallelCourseQueries {
+
+    private final Path csvFile;
+    private final ExecutorService executor;
+    private final long chunkSize;
+
+    ParallelCourseQueries(Path csvFile, ExecutorService executor, long chunkSize) {
+        this.csvFile = csvFile;
+        this.executor = executor;
+        this.chunkSize = chunkSize;
+    }
+
+    //1
+    Map<String, Integer> ptcpCountByInst() {
+        Map<String, Integer> result = new TreeMap<>();
+        for (Map<String, int[]> sums : scan(range -> new HashMap<String, int[]>(),
+            (sums, row) -> sums.computeIfAbsent(row.institution(), k -> new int[1])[0] += row.participant())) {
+            sums.forEach((institution, sum) -> result.merge(institution, sum[0], Integer::sum));
+        }
+        return result;
+    }
+
+    //2
+    /** Unordered sums per {@code "institution-subject"}. */
+    Map<String, Integer> ptcpCountByInstAndSubject() {
+        Map<String, Integer> result = new HashMap<>();
+        for (Map<String, Map<String, int[]>> sums : scan(range -> new HashMap<String, Map<String, int[]>>(),
+            (sums, row) -> sums.computeIfAbsent(row.institution(), k -> new HashMap<>())
+                .computeIfAbsent(row.courseSubject(), k -> new int[1])[0] += row.participant())) {
+            sums.forEach((institution, subjects) -> subjects.forEach((subject, sum) ->
+                result.merge(institution + "-" + subject, sum[0], Integer::sum)));
+        }
+        return result;
+    }
+
+    //3
+    InstructorIndex instructorIndex() {
+        InstructorIndex.Builder merged = new InstructorIndex.Builder();
+        for (InstructorIndex.Builder builder : scan(range -> new InstructorIndex.Builder(), (builder, row) -> {
+            String instructors = row.instructors();
+            builder.add(row.courseTitle(), instructors, !instructors.contains(","));
+        })) {
+            merged.addAll(builder);
+        }
+        return merged.build();
+    }
+
+    //4
+    List<String> courses(int topK, CourseMetric metric) {
+        DistinctTopK merged = new DistinctTopK(topK, true);
+        for (RangeTopK top : scan(range -> new RangeTopK(range, topK, metric), RangeTopK::offer)) {
+            merged.addAll(top.top);
+        }
+        return merged.titleNames();
+    }
+
+    //5
+    List<String> searchCourses(String courseSubject, double percentAudited, double totalCourseHours) {
+        String needle = courseSubject.toLowerCase();
+        TreeSet<String> merged = new TreeSet<>();
+        for (TreeSet<String> titles : scan(range -> new TreeSet<String>(), (titles, row) -> {
+            if (row.courseSubject().toLowerCase().contains(needle) && row.auditedProportion() >= percentAudited
+                && row.totalCourseHour() <= totalCourseHours) {
+                titles.add(row.courseTitle());
+            }
+        })) {
+            merged.addAll(titles);
+        }
+        return new ArrayList<>(merged);
+    }
+
+    //6
+    List<String> recommendCourses(int age, int gender, int isBachelorOrHigher) {
+        // Offerings are kept rather than summed per range: the means have to be summed latest
+        // first across all ranges to come out bit-identical.
+        Map<String, List<Offering>> byNumber = new HashMap<>();
+        for (Map<String, List<Offering>> offerings : scan(range -> new HashMap<String, List<Offering>>(),
+            (offerings, row) -> offerings.computeIfAbsent(row.courseNumber(), k -> new ArrayList<>())
+                .add(new Offering(row.launchDay(), row.courseTitle(), row.medianAge(), row.maleProportion(),
+                    row.bachelorDegreeOrHigherProportion())))) {
+            offerings.forEach((number, list) ->
+                byNumber.computeIfAbsent(number, k -> new ArrayList<>()).addAll(list));
+        }
+        DistinctTopK top = new DistinctTopK(10);
+        for (List<Offering> sameCourse : byNumber.values()) {
+            sameCourse.sort((o1, o2) -> Integer.compare(o2.launchDay, o1.launchDay));
+            double averageMedianAge = 0;
+            double averageMale = 0;
+            double averageIsB = 0;
+            for (Offering offering : sameCourse) {
+                averageMedianAge += offering.medianAge;
+                averageMale += offering.male;
+                averageIsB += offering.bachelor;
+            }
+            averageMedianAge /= sameCourse.size();
+            averageMale /= sameCourse.size();
+            averageIsB /= sameCourse.size();
+            top.offer(Math.pow(age - averageMedianAge, 2) + Math.pow(gender * 100 - averageMale, 2)
+                + Math.pow(isBachelorOrHigher * 100 - averageIsB, 2), 0, sameCourse.get(0).title);
+        }
+        return top.titleNames();
+    }
+
+    private <P> List<P> scan(IntFunction<P> partial, BiConsumer<P, CourseCursor> sink) {
+        try {
+            return ParallelCourseLoader.scan(csvFile, executor, chunkSize, 0, Files.size(csvFile), 1, partial, sink);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private record Offering(int launchDay, String title, double medianAge, double male, double bachelor) {
+    }
+
+    /** The top K of one range; ranks order rows by range first, so ties resolve in file order. */
+    private static final class RangeTopK {
+
+        final DistinctTopK top;
+        final long rankBase;
+        final CourseMetric metric;
+
+        RangeTopK(int range, int k, CourseMetric metric) {
+            this.top = new DistinctTopK(k, true);
+            this.rankBase = (long) range << 40;
+            this.metric = metric;
+        }
+
+        void offer(CourseCursor row) {
+            top.offer(metric.valueOf(row), rankBase + row.row(), row.courseTitle());
+        }
+    }
+}
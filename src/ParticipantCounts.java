@@ -0,0 +1,134 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Participant totals per institution (query 1) and per institution and subject (query 2).
+ * Institutions and subjects get dense ids of their own, so the totals are plain {@code int[]}
+ * accumulators indexed by id; strings are only looked up to build the two result maps. The
+ * accumulators are kept so that appended rows can be folded in without a rescan.
+ */
+final class ParticipantCounts {
+
+    private static final ParticipantCounts EMPTY = new ParticipantCounts(new String[0], new int[0], new int[0],
+        new int[0], new int[0][], new int[0][]);
+
+    /** Dictionary code of each institution id and subject id. */
+    private final int[] institutionCode;
+    private final int[] subjectCode;
+    private final int[] byInstitution;
+    /** Indexed {@code [institution][subject]}; a pair is only reported if it has rows. */
+    private final int[][] byInstitutionAndSubject;
+    private final int[][] rowsByInstitutionAndSubject;
+    private final Map<String, Integer> institutionResult;
+    private final Map<String, Integer> institutionAndSubjectResult;
+
+    private ParticipantCounts(String[] strings, int[] institutionCode, int[] subjectCode, int[] byInstitution,
+        int[][] byInstitutionAndSubject, int[][] rowsByInstitutionAndSubject) {
+        this.institutionCode = institutionCode;
+        this.subjectCode = subjectCode;
+        this.byInstitution = byInstitution;
+        this.byInstitutionAndSubject = byInstitutionAndSubject;
+        this.rowsByInstitutionAndSubject = rowsByInstitutionAndSubject;
+
+        Map<String, Integer> institutions = new TreeMap<>();
+        for (int i = 0; i < institutionCode.length; i++) {
+            institutions.put(strings[institutionCode[i]], byInstitution[i]);
+        }
+        this.institutionResult = Collections.unmodifiableMap(institutions);
+
+        // Different pairs can join to the same key, as "A-B" + "C" and "A" + "B-C" do; they are summed.
+        Map<String, Integer> joined = new HashMap<>();
+        for (int i = 0; i < institutionCode.length; i++) {
+            String prefix = strings[institutionCode[i]] + "-";
+            int[] sums = byInstitutionAndSubject[i];
+            int[] rows = rowsByInstitutionAndSubject[i];
+            for (int s = 0; s < sums.length; s++) {
+                if (rows[s] > 0) {
+                    joined.merge(prefix + strings[subjectCode[s]], sums[s], Integer::sum);
+                }
+            }
+        }
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>(joined.entrySet());
+        entries.sort((o1, o2) -> {
+            if (!o1.getValue().equals(o2.getValue())) {
+                return Integer.compare(o2.getValue(), o1.getValue());
+            } else {
+                return o1.getKey().compareTo(o2.getKey());
+            }
+        });
+        Map<String, Integer> sorted = new LinkedHashMap<>();
+        entries.forEach(e -> sorted.put(e.getKey(), e.getValue()));
+        this.institutionAndSubjectResult = Collections.unmodifiableMap(sorted);
+    }
+
+    static ParticipantCounts of(CourseStore store) {
+        return EMPTY.withRows(store, 0);
+    }
+
+    /** These counts plus the rows of {@code store} from {@code from} on. */
+    ParticipantCounts withRows(CourseStore store, int from) {
+        int[] institutionId = ids(store, institutionCode);
+        int[] subjectId = ids(store, subjectCode);
+        int[] institutions = Arrays.copyOf(institutionCode, institutionCode.length + store.size - from);
+        int[] subjects = Arrays.copyOf(subjectCode, subjectCode.length + store.size - from);
+        int institutionCount = institutionCode.length;
+        int subjectCount = subjectCode.length;
+        int[] rowInstitution = new int[store.size - from];
+        int[] rowSubject = new int[store.size - from];
+        for (int i = from; i < store.size; i++) {
+            int code = store.institution[i];
+            if (institutionId[code] < 0) {
+                institutionId[code] = institutionCount;
+                institutions[institutionCount++] = code;
+            }
+            code = store.courseSubject[i];
+            if (subjectId[code] < 0) {
+                subjectId[code] = subjectCount;
+                subjects[subjectCount++] = code;
+            }
+            rowInstitution[i - from] = institutionId[store.institution[i]];
+            rowSubject[i - from] = subjectId[code];
+        }
+
+        int[] sums = Arrays.copyOf(byInstitution, institutionCount);
+        int[][] pairSums = new int[institutionCount][];
+        int[][] pairRows = new int[institutionCount][];
+        for (int i = 0; i < institutionCount; i++) {
+            boolean old = i < byInstitutionAndSubject.length;
+            pairSums[i] = Arrays.copyOf(old ? byInstitutionAndSubject[i] : new int[0], subjectCount);
+            pairRows[i] = Arrays.copyOf(old ? rowsByInstitutionAndSubject[i] : new int[0], subjectCount);
+        }
+        for (int k = 0; k < rowInstitution.length; k++) {
+            int participant = store.participant[from + k];
+            sums[rowInstitution[k]] += participant;
+            pairSums[rowInstitution[k]][rowSubject[k]] += participant;
+            pairRows[rowInstitution[k]][rowSubject[k]]++;
+        }
+        return new ParticipantCounts(store.strings, Arrays.copyOf(institutions, institutionCount),
+            Arrays.copyOf(subjects, subjectCount), sums, pairSums, pairRows);
+    }
+
+    /** Id of every dictionary code in {@code codes}, -1 for the other codes of {@code store}. */
+    private static int[] ids(CourseStore store, int[] codes) {
+        int[] ids = new int[store.strings.length];
+        Arrays.fill(ids, -1);
+        for (int id = 0; id < codes.length; id++) {
+            ids[codes[id]] = id;
+        }
+        return ids;
+    }
+
+    Map<String, Integer> byInstitution() {
+        return new TreeMap<>(institutionResult);
+    }
+
+    Map<String, Integer> byInstitutionAndSubject() {
+        return new LinkedHashMap<>(institutionAndSubjectResult);
+    }
+}
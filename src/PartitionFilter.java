@@ -0,0 +1,88 @@
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Which rows of a partitioned dataset to load; see {@link OnlineCoursesAnalyzer#partitioned}.
+ * A row is kept if its institution is one of {@code institutions} ({@code null} for any) and it
+ * launched in {@code [launchedFrom, launchedBefore)}. A value class rather than a record so the
+ * bounds are converted to epoch days once, not on every row.
+ */
+public final class PartitionFilter {
+
+    public static final PartitionFilter ALL = new PartitionFilter(null, LocalDate.MIN, LocalDate.MAX);
+
+    private final Set<String> institutions;
+    private final LocalDate launchedFrom;
+    private final LocalDate launchedBefore;
+    private final int fromDay;
+    private final int toDay;
+
+    public PartitionFilter(Set<String> institutions, LocalDate launchedFrom, LocalDate launchedBefore) {
+        this.institutions = institutions == null ? null : Set.copyOf(institutions);
+        this.launchedFrom = launchedFrom;
+        this.launchedBefore = launchedBefore;
+        this.fromDay = OnlineCoursesAnalyzer.epochDay(launchedFrom);
+        this.toDay = OnlineCoursesAnalyzer.epochDay(launchedBefore);
+    }
+
+    public Set<String> institutions() {
+        return institutions;
+    }
+
+    public LocalDate launchedFrom() {
+        return launchedFrom;
+    }
+
+    public LocalDate launchedBefore() {
+        return launchedBefore;
+    }
+
+    /** This filter, keeping only the rows of {@code names}. */
+    public PartitionFilter onlyInstitutions(String... names) {
+        return new PartitionFilter(new TreeSet<>(Arrays.asList(names)), launchedFrom, launchedBefore);
+    }
+
+    /** This filter, keeping only the courses launched from {@code from} up to but excluding {@code to}. */
+    public PartitionFilter launchedBetween(LocalDate from, LocalDate to) {
+        return new PartitionFilter(institutions, from, to);
+    }
+
+    /** This filter, keeping only the courses launched in {@code year}. */
+    public PartitionFilter launchedIn(int year) {
+        return launchedBetween(LocalDate.of(year, 1, 1), LocalDate.of(year + 1, 1, 1));
+    }
+
+    boolean keeps(String institution, int launchDay) {
+        return (institutions == null || institutions.contains(institution)) && launchDay >= fromDay
+            && launchDay < toDay;
+    }
+
+    /** Whether rows with institutions in {@code [min, max]} and days in {@code [minDay, maxDay]} may be kept. */
+    boolean mayKeep(String minInstitution, String maxInstitution, int minDay, int maxDay) {
+        if (maxDay < fromDay || minDay >= toDay) {
+            return false;
+        }
+        return institutions == null || institutions.stream()
+            .anyMatch(name -> name.compareTo(minInstitution) >= 0 && name.compareTo(maxInstitution) <= 0);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof PartitionFilter other && Objects.equals(institutions, other.institutions)
+            && Objects.equals(launchedFrom, other.launchedFrom) && Objects.equals(launchedBefore, other.launchedBefore);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(institutions, launchedFrom, launchedBefore);
+    }
+
+    @Override
+    public String toString() {
+        return "PartitionFilter[institutions=" + institutions + ", launchedFrom=" + launchedFrom
+            + ", launchedBefore=" + launchedBefore + "]";
+    }
+}
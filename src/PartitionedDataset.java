@@ -0,0 +1,192 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Stream;
+
+/**
+ * A dataset split over many course CSV files, loaded as if the files were concatenated in name
+ * order. Files are parsed concurrently, one task per file, and their column chunks are merged in
+ * that order, so every query answers exactly as it would on the concatenated file. Next to each
+ * file a {@code .stats} sidecar records its size, modification time, row count and the range of
+ * its institutions and launch days; with a current sidecar, a file the {@link PartitionFilter}
+ * rules out is skipped without being opened.
+ */
+final class PartitionedDataset {
+
+    static final String SIDECAR_SUFFIX = ".stats";
+
+    private PartitionedDataset() {
+    }
+
+    /**
+     * The partitions named by {@code pathOrGlob}: every {@code .csv} file of a directory, or the
+     * files of the parent directory matching a glob such as {@code exports/MITx-*.csv}. Sidecars
+     * are never partitions, even where a glob like {@code exports/MITx-*} matches them.
+     */
+    static List<Path> partitions(String pathOrGlob) throws IOException {
+        Path path = Paths.get(pathOrGlob);
+        Path directory;
+        String glob;
+        if (Files.isDirectory(path)) {
+            directory = path;
+            glob = "*.csv";
+        } else {
+            directory = path.getParent() == null ? Paths.get("") : path.getParent();
+            glob = path.getFileName().toString();
+        }
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory.toAbsolutePath(), glob)) {
+            for (Path entry : entries) {
+                if (Files.isRegularFile(entry) && !entry.getFileName().toString().endsWith(SIDECAR_SUFFIX)) {
+                    files.add(entry);
+                }
+            }
+        }
+        if (files.isEmpty()) {
+            throw new NoSuchFileException(pathOrGlob, null, "no course CSV files");
+        }
+        files.sort(null);
+        return files;
+    }
+
+    static CourseStore load(List<Path> files, ExecutorService executor, PartitionFilter filter) throws IOException {
+        List<Callable<CourseStore.Builder>> tasks = new ArrayList<>(files.size());
+        for (Path file : files) {
+            tasks.add(() -> {
+                Stats stats = Stats.read(file);
+                if (stats != null && (stats.rows == 0 || !filter.mayKeep(stats.minInstitution,
+                    stats.maxInstitution, stats.minLaunchDay, stats.maxLaunchDay))) {
+                    return null;
+                }
+                return parse(file, filter, stats == null);
+            });
+        }
+        CourseStore.Builder merged = new CourseStore.Builder();
+        for (CourseStore.Builder part : ParallelCourseLoader.invokeAll(executor, tasks)) {
+            if (part != null) {
+                merged.addAll(part);
+            }
+        }
+        return merged.build();
+    }
+
+    /** The rows of {@code file} that {@code filter} keeps, writing its sidecar on the way if asked. */
+    private static CourseStore.Builder parse(Path file, PartitionFilter filter, boolean writeStats)
+        throws IOException {
+        long size = Files.size(file);
+        long modified = Files.getLastModifiedTime(file).toMillis();
+        CourseStore.Builder builder = new CourseStore.Builder();
+        Stats stats = new Stats(size, modified);
+        try (Stream<CourseCursor> rows = CourseCursor.rows(file)) {
+            rows.forEach(row -> {
+                String institution = row.institution();
+                int day = row.launchDay();
+                stats.add(institution, day);
+                if (filter.keeps(institution, day)) {
+                    builder.add(row.fields());
+                }
+            });
+        } catch (CourseFormatException e) {
+            throw new CourseFormatException(file, e);
+        }
+        if (writeStats) {
+            try {
+                stats.write(file);
+            } catch (IOException e) {
+                // Sidecars only save work later; a read-only dataset still loads.
+            }
+        }
+        return builder;
+    }
+
+    static Path sidecar(Path file) {
+        return file.resolveSibling(file.getFileName() + SIDECAR_SUFFIX);
+    }
+
+    /** Per-file statistics; only trusted while the file keeps its size and modification time. */
+    static final class Stats {
+
+        final long size;
+        final long modified;
+        long rows;
+        String minInstitution;
+        String maxInstitution;
+        int minLaunchDay = Integer.MAX_VALUE;
+        int maxLaunchDay = Integer.MIN_VALUE;
+
+        Stats(long size, long modified) {
+            this.size = size;
+            this.modified = modified;
+        }
+
+        void add(String institution, int launchDay) {
+            rows++;
+            if (minInstitution == null || institution.compareTo(minInstitution) < 0) {
+                minInstitution = institution;
+            }
+            if (maxInstitution == null || institution.compareTo(maxInstitution) > 0) {
+                maxInstitution = institution;
+            }
+            minLaunchDay = Math.min(minLaunchDay, launchDay);
+            maxLaunchDay = Math.max(maxLaunchDay, launchDay);
+        }
+
+        /** The sidecar of {@code file}, or {@code null} if there is none or it is out of date. */
+        static Stats read(Path file) throws IOException {
+            Path sidecar = sidecar(file);
+            if (!Files.exists(sidecar)) {
+                return null;
+            }
+            Properties properties = new Properties();
+            try (InputStream in = Files.newInputStream(sidecar)) {
+                properties.load(in);
+            }
+            try {
+                Stats stats = new Stats(Long.parseLong(properties.getProperty("size")),
+                    Long.parseLong(properties.getProperty("modified")));
+                if (stats.size != Files.size(file) || stats.modified != Files.getLastModifiedTime(file).toMillis()) {
+                    return null;
+                }
+                stats.rows = Long.parseLong(properties.getProperty("rows"));
+                if (stats.rows > 0) {
+                    stats.minInstitution = properties.getProperty("minInstitution");
+                    stats.maxInstitution = properties.getProperty("maxInstitution");
+                    stats.minLaunchDay = Integer.parseInt(properties.getProperty("minLaunchDay"));
+                    stats.maxLaunchDay = Integer.parseInt(properties.getProperty("maxLaunchDay"));
+                    if (stats.minInstitution == null || stats.maxInstitution == null) {
+                        return null;
+                    }
+                }
+                return stats;
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        void write(Path file) throws IOException {
+            Properties properties = new Properties();
+            properties.setProperty("size", Long.toString(size));
+            properties.setProperty("modified", Long.toString(modified));
+            properties.setProperty("rows", Long.toString(rows));
+            if (rows > 0) {
+                properties.setProperty("minInstitution", minInstitution);
+                properties.setProperty("maxInstitution", maxInstitution);
+                properties.setProperty("minLaunchDay", Integer.toString(minLaunchDay));
+                properties.setProperty("maxLaunchDay", Integer.toString(maxLaunchDay));
+            }
+            try (OutputStream out = Files.newOutputStream(sidecar(file))) {
+                properties.store(out, "course CSV partition statistics");
+            }
+        }
+    }
+}
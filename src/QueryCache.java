@@ -0,0 +1,106 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Query results keyed by query name and arguments. Results of the queries without arguments are
+ * always kept; the others are evicted least recently used first once there are more than
+ * {@code maxEntries}. Every lookup compares the current version of the data with the one the
+ * cached results were computed for and drops them all when it changed: the in-memory store of a
+ * materialized analyzer, or the {@link Stamp} of a file that is read again on every query. Results
+ * are computed outside the lock, so a slow query does not block hits on other keys.
+ */
+final class QueryCache {
+
+    private final Supplier<?> version;
+    private final int maxEntries;
+    private final Map<Key, Object> fixed = new HashMap<>();
+    private final LinkedHashMap<Key, Object> recent;
+    private Object stamp;
+    /** Bumped on every invalidation, so a result computed from the previous file is not stored. */
+    private long generation;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    /** {@code version} is compared with {@link Object#equals}, and must be cheap to get. */
+    QueryCache(Supplier<?> version, int maxEntries) {
+        this.version = version;
+        this.maxEntries = maxEntries;
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+                if (size() > QueryCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * The cached result of {@code query} with {@code args}, or the result of {@code compute},
+     * which must not be {@code null} and should not be modifiable.
+     */
+    @SuppressWarnings("unchecked")
+    <T> T get(String query, List<?> args, Supplier<T> compute) {
+        Key key = new Key(query, args);
+        Object current = version.get();
+        long computedIn;
+        synchronized (this) {
+            if (!current.equals(stamp)) {
+                if (stamp != null) {
+                    invalidations++;
+                }
+                fixed.clear();
+                recent.clear();
+                stamp = current;
+                generation++;
+            }
+            Object result = args.isEmpty() ? fixed.get(key) : recent.get(key);
+            if (result != null) {
+                hits++;
+                return (T) result;
+            }
+            misses++;
+            computedIn = generation;
+        }
+        T result = compute.get();
+        synchronized (this) {
+            if (computedIn == generation) {
+                (args.isEmpty() ? fixed : recent).put(key, result);
+            }
+        }
+        return result;
+    }
+
+    synchronized OnlineCoursesAnalyzer.CacheStats stats() {
+        return new OnlineCoursesAnalyzer.CacheStats(hits, misses, evictions, invalidations,
+            fixed.size() + recent.size());
+    }
+
+    private record Key(String query, List<?> args) {
+    }
+
+    /** Modification time and size of a file. */
+    record Stamp(FileTime modified, long size) {
+
+        static Stamp of(Path file) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                return new Stamp(attributes.lastModifiedTime(), attributes.size());
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+}
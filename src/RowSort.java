@@ -0,0 +1,85 @@
+import java.util.Arrays;
+
+/**
+ * Stable sorts of row numbers or string codes by the values they point at, on primitive arrays
+ * only. By a double column, each value is replaced by its rank among the distinct values, so that
+ * rank and row fit together in one {@code long} key and a single {@link Arrays#sort(long[])}
+ * orders the rows.
+ */
+final class RowSort {
+
+    private RowSort() {
+    }
+
+    /**
+     * Sorts {@code rows[from, to)} by {@code values[row]} in {@link Double#compare} order,
+     * largest first with {@code descending}; equal values keep ascending row order.
+     */
+    static void byValue(int[] rows, int from, int to, double[] values, boolean descending) {
+        int n = to - from;
+        long[] bits = new long[n];
+        for (int k = 0; k < n; k++) {
+            bits[k] = sortable(values[rows[from + k]]);
+        }
+        long[] distinct = bits.clone();
+        Arrays.sort(distinct);
+        int m = 0;
+        for (int k = 0; k < n; k++) {
+            if (m == 0 || distinct[m - 1] != distinct[k]) {
+                distinct[m++] = distinct[k];
+            }
+        }
+        long[] keys = new long[n];
+        for (int k = 0; k < n; k++) {
+            int rank = Arrays.binarySearch(distinct, 0, m, bits[k]);
+            keys[k] = (long) (descending ? m - 1 - rank : rank) << 32 | rows[from + k];
+        }
+        Arrays.sort(keys);
+        for (int k = 0; k < n; k++) {
+            rows[from + k] = (int) keys[k];
+        }
+    }
+
+    /** All rows of a column of {@code values.length}, sorted as by {@link #byValue}. */
+    static int[] byValue(double[] values, boolean descending) {
+        int[] rows = new int[values.length];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = i;
+        }
+        byValue(rows, 0, rows.length, values, descending);
+        return rows;
+    }
+
+    /** Sorts {@code codes} by {@code strings[code]}, equal strings keeping their order. */
+    static void byString(int[] codes, String[] strings) {
+        mergeSort(codes.clone(), codes, 0, codes.length, strings);
+    }
+
+    /** Sorts {@code dst[lo, hi)}; {@code src} holds the same codes there and serves as scratch. */
+    private static void mergeSort(int[] src, int[] dst, int lo, int hi, String[] strings) {
+        if (hi - lo < 16) {
+            for (int i = lo + 1; i < hi; i++) {
+                int code = dst[i];
+                int j = i;
+                for (; j > lo && strings[dst[j - 1]].compareTo(strings[code]) > 0; j--) {
+                    dst[j] = dst[j - 1];
+                }
+                dst[j] = code;
+            }
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        mergeSort(dst, src, lo, mid, strings);
+        mergeSort(dst, src, mid, hi, strings);
+        for (int k = lo, a = lo, b = mid; k < hi; k++) {
+            boolean takeLeft = b == hi || a < mid && strings[src[a]].compareTo(strings[src[b]]) <= 0;
+            dst[k] = takeLeft ? src[a++] : src[b++];
+        }
+    }
+
+    /** A long that orders like {@code value} does under {@link Double#compare}. */
+    private static long sortable(double value) {
+        long bits = Double.doubleToLongBits(value);
+        return bits ^ (bits >> 63 & Long.MAX_VALUE);
+    }
+}
@@ -0,0 +1,36 @@
+/** Plain loops, which C2 may still auto-vectorize; the fallback when the Vector API is missing. */
+final class ScalarKernels implements NumericKernels {
+
+    @Override
+    public void atMost(double[] values, int from, int to, double max, long[] bits) {
+        for (int k = from; k < to; k += 64) {
+            long word = 0;
+            for (int j = 0, end = Math.min(64, to - k); j < end; j++) {
+                word |= (values[k + j] <= max ? 1L : 0L) << j;
+            }
+            bits[(k - from) >>> 6] = word;
+        }
+    }
+
+    @Override
+    public void atLeast(double[] values, int from, int to, double min, long[] bits) {
+        for (int k = from; k < to; k += 64) {
+            long word = 0;
+            for (int j = 0, end = Math.min(64, to - k); j < end; j++) {
+                word |= (values[k + j] >= min ? 1L : 0L) << j;
+            }
+            bits[(k - from) >>> 6] = word;
+        }
+    }
+
+    @Override
+    public void squaredDistances(double[] x, double[] y, double[] z, int from, int to, double px, double py,
+        double pz, double[] out) {
+        for (int i = from; i < to; i++) {
+            double dx = px - x[i];
+            double dy = py - y[i];
+            double dz = pz - z[i];
+            out[i - from] = dx * dx + dy * dy + dz * dz;
+        }
+    }
+}
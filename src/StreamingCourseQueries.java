@@ -0,0 +1,258 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Answers the queries that used to collect or sort the whole file in one pass each, keeping
+ * only the top K or the current group in memory. Output that has to be sorted goes through an
+ * {@link ExternalSorter} that spills to temporary files once the memory budget is used up, so
+ * files larger than the heap can be queried. The answers are identical to the other engines.
+ */
+final class StreamingCourseQueries {
+
+    private final Supplier<Stream<CourseCursor>> rows;
+    private final long memoryBudget;
+    private final Path tempDir;
+
+    StreamingCourseQueries(Supplier<Stream<CourseCursor>> rows, long memoryBudget, Path tempDir) {
+        this.rows = rows;
+        this.memoryBudget = memoryBudget;
+        this.tempDir = tempDir;
+    }
+
+    /** The same queries, within the same budget, over {@code rows} instead. */
+    StreamingCourseQueries over(Supplier<Stream<CourseCursor>> rows) {
+        return new StreamingCourseQueries(rows, memoryBudget, tempDir);
+    }
+
+    //3
+    Map<String, List<List<String>>> courseListOfInstructor() throws IOException {
+        Map<String, List<List<String>>> result = new HashMap<>();
+        try (ExternalSorter<Taught> sorter = new ExternalSorter<>(Taught.ORDER, Taught.CODEC, memoryBudget,
+            tempDir)) {
+            try (Stream<CourseCursor> courses = rows.get()) {
+                for (Iterator<CourseCursor> it = courses.iterator(); it.hasNext(); ) {
+                    CourseCursor c = it.next();
+                    String instructors = c.instructors();
+                    String title = c.courseTitle();
+                    for (String name : InstructorIndex.names(instructors)) {
+                        sorter.add(new Taught(name, instructors.contains(",") ? 1 : 0, title));
+                    }
+                }
+            }
+            Taught[] previous = {null};
+            sorter.forEachSorted(t -> {
+                Taught last = previous[0];
+                if (last == null || !last.name.equals(t.name)) {
+                    result.put(t.name, new ArrayList<>(List.of(new ArrayList<>(), new ArrayList<>())));
+                } else if (last.list == t.list && last.title.equals(t.title)) {
+                    return;
+                }
+                result.get(t.name).get(t.list).add(t.title);
+                previous[0] = t;
+            });
+        }
+        result.replaceAll((name, lists) -> new ArrayList<>(List.of(List.copyOf(lists.get(0)),
+            List.copyOf(lists.get(1)))));
+        return result;
+    }
+
+    List<List<String>> courseListOfInstructor(String instructor) {
+        List<TreeSet<String>> titles = List.of(new TreeSet<>(), new TreeSet<>());
+        try (Stream<CourseCursor> courses = rows.get()) {
+            courses.forEach(c -> {
+                String instructors = c.instructors();
+                for (String name : InstructorIndex.names(instructors)) {
+                    if (name.equals(instructor)) {
+                        titles.get(instructors.contains(",") ? 1 : 0).add(c.courseTitle());
+                    }
+                }
+            });
+        }
+        return new ArrayList<>(List.of(new ArrayList<>(titles.get(0)), new ArrayList<>(titles.get(1))));
+    }
+
+    //4
+    List<String> courses(int topK, CourseMetric metric) {
+        DistinctTopK top = new DistinctTopK(topK, true);
+        try (Stream<CourseCursor> courses = rows.get()) {
+            for (Iterator<CourseCursor> it = courses.iterator(); it.hasNext(); ) {
+                CourseCursor c = it.next();
+                top.offer(metric.valueOf(c), c.row(), c.courseTitle());
+            }
+        }
+        return top.titleNames();
+    }
+
+    //5
+    List<String> searchCourses(String courseSubject, double percentAudited, double totalCourseHours)
+        throws IOException {
+        String needle = courseSubject.toLowerCase();
+        List<String> result = new ArrayList<>();
+        try (ExternalSorter<String> sorter = new ExternalSorter<>(Comparator.naturalOrder(), TITLES, memoryBudget,
+            tempDir)) {
+            try (Stream<CourseCursor> courses = rows.get()) {
+                for (Iterator<CourseCursor> it = courses.iterator(); it.hasNext(); ) {
+                    CourseCursor c = it.next();
+                    if (c.courseSubject().toLowerCase().contains(needle) && c.auditedProportion() >= percentAudited
+                        && c.totalCourseHour() <= totalCourseHours) {
+                        sorter.add(c.courseTitle());
+                    }
+                }
+            }
+            sorter.forEachSorted(title -> {
+                if (result.isEmpty() || !result.get(result.size() - 1).equals(title)) {
+                    result.add(title);
+                }
+            });
+        }
+        return result;
+    }
+
+    //6
+    List<String> recommendCourses(int age, int gender, int isBachelorOrHigher) throws IOException {
+        DistinctTopK top = new DistinctTopK(10);
+        try (ExternalSorter<Offering> sorter = new ExternalSorter<>(Offering.ORDER, Offering.CODEC, memoryBudget,
+            tempDir)) {
+            try (Stream<CourseCursor> courses = rows.get()) {
+                for (Iterator<CourseCursor> it = courses.iterator(); it.hasNext(); ) {
+                    CourseCursor c = it.next();
+                    sorter.add(new Offering(c.courseNumber(), c.launchDay(), c.row(), c.courseTitle(), c.medianAge(),
+                        c.maleProportion(), c.bachelorDegreeOrHigherProportion()));
+                }
+            }
+            // Offerings arrive grouped by course number, latest first, and the means are summed in
+            // that order, exactly as the other engines do.
+            Group group = new Group();
+            sorter.forEachSorted(o -> {
+                if (group.latest != null && !group.latest.courseNumber.equals(o.courseNumber)) {
+                    group.offerTo(top, age, gender, isBachelorOrHigher);
+                    group.latest = null;
+                }
+                group.add(o);
+            });
+            if (group.latest != null) {
+                group.offerTo(top, age, gender, isBachelorOrHigher);
+            }
+        }
+        return top.titleNames();
+    }
+
+    private static final ExternalSorter.Codec<String> TITLES = new ExternalSorter.Codec<>() {
+        @Override
+        public void write(DataOutput out, String value) throws IOException {
+            ExternalSorter.writeString(out, value);
+        }
+
+        @Override
+        public String read(DataInput in) throws IOException {
+            return ExternalSorter.readString(in);
+        }
+
+        @Override
+        public long bytes(String value) {
+            return ExternalSorter.bytes(value);
+        }
+    };
+
+    /** One title an instructor teaches; {@code list} is 0 when taught alone, 1 when co-taught. */
+    private record Taught(String name, int list, String title) {
+
+        static final Comparator<Taught> ORDER = Comparator.comparing(Taught::name).thenComparingInt(Taught::list)
+            .thenComparing(Taught::title);
+
+        static final ExternalSorter.Codec<Taught> CODEC = new ExternalSorter.Codec<>() {
+            @Override
+            public void write(DataOutput out, Taught value) throws IOException {
+                ExternalSorter.writeString(out, value.name);
+                out.writeByte(value.list);
+                ExternalSorter.writeString(out, value.title);
+            }
+
+            @Override
+            public Taught read(DataInput in) throws IOException {
+                return new Taught(ExternalSorter.readString(in), in.readByte(), ExternalSorter.readString(in));
+            }
+
+            @Override
+            public long bytes(Taught value) {
+                return ExternalSorter.bytes(value.name) + ExternalSorter.bytes(value.title) + 24;
+            }
+        };
+    }
+
+    /** The columns of one row that {@code recommendCourses} needs. */
+    private record Offering(String courseNumber, int launchDay, long row, String title, double medianAge,
+                            double male, double bachelor) {
+
+        /** By course number, then latest launch first, then file order. */
+        static final Comparator<Offering> ORDER = Comparator.comparing(Offering::courseNumber)
+            .thenComparing((a, b) -> Integer.compare(b.launchDay, a.launchDay)).thenComparingLong(Offering::row);
+
+        static final ExternalSorter.Codec<Offering> CODEC = new ExternalSorter.Codec<>() {
+            @Override
+            public void write(DataOutput out, Offering value) throws IOException {
+                ExternalSorter.writeString(out, value.courseNumber);
+                out.writeInt(value.launchDay);
+                out.writeLong(value.row);
+                ExternalSorter.writeString(out, value.title);
+                out.writeDouble(value.medianAge);
+                out.writeDouble(value.male);
+                out.writeDouble(value.bachelor);
+            }
+
+            @Override
+            public Offering read(DataInput in) throws IOException {
+                return new Offering(ExternalSorter.readString(in), in.readInt(), in.readLong(),
+                    ExternalSorter.readString(in), in.readDouble(), in.readDouble(), in.readDouble());
+            }
+
+            @Override
+            public long bytes(Offering value) {
+                return ExternalSorter.bytes(value.courseNumber) + ExternalSorter.bytes(value.title) + 56;
+            }
+        };
+    }
+
+    /** Running sums over the offerings of one course number. */
+    private static final class Group {
+
+        Offering latest;
+        int count;
+        double age;
+        double male;
+        double bachelor;
+
+        void add(Offering o) {
+            if (latest == null) {
+                latest = o;
+                count = 0;
+                age = 0;
+                male = 0;
+                bachelor = 0;
+            }
+            count++;
+            age += o.medianAge;
+            male += o.male;
+            bachelor += o.bachelor;
+        }
+
+        void offerTo(DistinctTopK top, int targetAge, int gender, int isBachelorOrHigher) {
+            double averageMedianAge = age / count;
+            double averageMale = male / count;
+            double averageIsB = bachelor / count;
+            top.offer(Math.pow(targetAge - averageMedianAge, 2) + Math.pow(gender * 100 - averageMale, 2)
+                + Math.pow(isBachelorOrHigher * 100 - averageIsB, 2), 0, latest.title);
+        }
+    }
+}
@@ -0,0 +1,290 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Search index for {@code searchCourses}: the lowercased subject dictionary with a trigram
+ * index for substring lookups, each subject's rows sorted by audited % (highest first) and all
+ * rows sorted by total hours. A search intersects the candidate row ranges found by binary
+ * search; the rows of the smaller range are then filtered on the other condition through
+ * {@link NumericKernels}, which read that condition's column copied into the range's order.
+ * Rows whose audited % or hours are NaN can never match and are left out.
+ */
+final class SubjectIndex {
+
+    private static final SubjectIndex EMPTY = new SubjectIndex(new String[0], new int[0], new int[0], new String[0],
+        Map.of(), new int[1], new int[0], new double[0], new double[0], new int[0], new double[0], new double[0],
+        new int[0]);
+
+    private final String[] strings;
+    private final int[] courseTitle;
+    /** Subject {@code s} is {@code strings[subjectCode[s]]}, lowercased as {@code lowered[s]}. */
+    private final int[] subjectCode;
+    private final String[] lowered;
+    /** Ascending subjects whose lowercased name contains each trigram. */
+    private final Map<Long, int[]> trigrams;
+    /** Rows of subject {@code s}, by audited % descending, are {@code groupRows[groupStart[s]..groupStart[s + 1])}. */
+    private final int[] groupStart;
+    private final int[] groupRows;
+    /** Audited % and hours of {@code groupRows}, position by position. */
+    private final double[] groupAudited;
+    private final double[] groupHours;
+    /** Rows by hours ascending, with their hours and audited %. */
+    private final int[] byHours;
+    private final double[] hours;
+    private final double[] hoursAudited;
+    /** Subject of every row, or -1 if the row is in no index. */
+    private final int[] subjectOf;
+
+    private SubjectIndex(String[] strings, int[] courseTitle, int[] subjectCode, String[] lowered,
+        Map<Long, int[]> trigrams, int[] groupStart, int[] groupRows, double[] groupAudited, double[] groupHours,
+        int[] byHours, double[] hours, double[] hoursAudited, int[] subjectOf) {
+        this.strings = strings;
+        this.courseTitle = courseTitle;
+        this.subjectCode = subjectCode;
+        this.lowered = lowered;
+        this.trigrams = trigrams;
+        this.groupStart = groupStart;
+        this.groupRows = groupRows;
+        this.groupAudited = groupAudited;
+        this.groupHours = groupHours;
+        this.byHours = byHours;
+        this.hours = hours;
+        this.hoursAudited = hoursAudited;
+        this.subjectOf = subjectOf;
+    }
+
+    static SubjectIndex of(CourseStore store) {
+        return EMPTY.withRows(store, 0);
+    }
+
+    /** This index plus the rows of {@code store} from {@code from} on. */
+    SubjectIndex withRows(CourseStore store, int from) {
+        int[] subjectByCode = new int[store.strings.length];
+        Arrays.fill(subjectByCode, -1);
+        for (int s = 0; s < subjectCode.length; s++) {
+            subjectByCode[subjectCode[s]] = s;
+        }
+        int subjects = subjectCode.length;
+        int[] codes = Arrays.copyOf(subjectCode, subjects + store.size - from);
+        List<String> newNames = new ArrayList<>();
+        int[] rowSubject = Arrays.copyOf(subjectOf, store.size);
+        int[] added = new int[codes.length];
+        for (int i = from; i < store.size; i++) {
+            int code = store.courseSubject[i];
+            if (subjectByCode[code] < 0) {
+                subjectByCode[code] = subjects;
+                codes[subjects++] = code;
+                newNames.add(store.strings[code].toLowerCase());
+            }
+            rowSubject[i] = Double.isNaN(store.auditedProportion[i]) ? -1 : subjectByCode[code];
+            if (rowSubject[i] >= 0) {
+                added[rowSubject[i]]++;
+            }
+        }
+
+        String[] names = Arrays.copyOf(lowered, subjects);
+        Map<Long, List<Integer>> newPostings = new HashMap<>();
+        for (int s = lowered.length; s < subjects; s++) {
+            names[s] = newNames.get(s - lowered.length);
+            String name = names[s];
+            for (int c = 0; c + 3 <= name.length(); c++) {
+                List<Integer> posting = newPostings.computeIfAbsent(trigram(name, c), k -> new ArrayList<>());
+                if (posting.isEmpty() || posting.get(posting.size() - 1) != s) {
+                    posting.add(s);
+                }
+            }
+        }
+        Map<Long, int[]> grams = new HashMap<>(trigrams);
+        newPostings.forEach((gram, posting) -> {
+            int[] before = grams.getOrDefault(gram, new int[0]);
+            int[] merged = Arrays.copyOf(before, before.length + posting.size());
+            for (int k = 0; k < posting.size(); k++) {
+                merged[before.length + k] = posting.get(k);
+            }
+            grams.put(gram, merged);
+        });
+
+        int oldGroups = groupStart.length - 1;
+        int[] start = new int[subjects + 1];
+        for (int s = 0; s < subjects; s++) {
+            int before = s < oldGroups ? groupStart[s + 1] - groupStart[s] : 0;
+            start[s + 1] = start[s] + before + added[s];
+        }
+        int[] rows = new int[start[subjects]];
+        int[] fill = new int[subjects];
+        for (int s = 0; s < subjects; s++) {
+            fill[s] = start[s];
+            if (s < oldGroups) {
+                int before = groupStart[s + 1] - groupStart[s];
+                System.arraycopy(groupRows, groupStart[s], rows, start[s], before);
+                fill[s] += before;
+            }
+        }
+        for (int i = from; i < store.size; i++) {
+            if (rowSubject[i] >= 0) {
+                rows[fill[rowSubject[i]]++] = i;
+            }
+        }
+        for (int s = 0; s < subjects; s++) {
+            if (added[s] > 0) {
+                RowSort.byValue(rows, start[s], start[s + 1], store.auditedProportion, true);
+            }
+        }
+        double[] audited = new double[rows.length];
+        double[] rowHours = new double[rows.length];
+        for (int k = 0; k < rows.length; k++) {
+            audited[k] = store.auditedProportion[rows[k]];
+            rowHours[k] = store.totalCourseHour[rows[k]];
+        }
+
+        int[] newByHours = new int[store.size - from];
+        int n = 0;
+        for (int i = from; i < store.size; i++) {
+            if (rowSubject[i] >= 0 && !Double.isNaN(store.totalCourseHour[i])) {
+                newByHours[n++] = i;
+            }
+        }
+        RowSort.byValue(newByHours, 0, n, store.totalCourseHour, false);
+        int[] mergedHours = new int[byHours.length + n];
+        for (int a = 0, b = 0, k = 0; k < mergedHours.length; k++) {
+            boolean takeOld = b == n
+                || a < byHours.length && hours[a] <= store.totalCourseHour[newByHours[b]];
+            mergedHours[k] = takeOld ? byHours[a++] : newByHours[b++];
+        }
+        double[] mergedHourValues = new double[mergedHours.length];
+        double[] mergedAudited = new double[mergedHours.length];
+        for (int k = 0; k < mergedHours.length; k++) {
+            mergedHourValues[k] = store.totalCourseHour[mergedHours[k]];
+            mergedAudited[k] = store.auditedProportion[mergedHours[k]];
+        }
+        return new SubjectIndex(store.strings, store.courseTitle, Arrays.copyOf(codes, subjects), names, grams,
+            start, rows, audited, rowHours, mergedHours, mergedHourValues, mergedAudited, rowSubject);
+    }
+
+    /** Sorted, distinct titles of the courses matching all three conditions. */
+    List<String> search(String subject, double percentAudited, double totalCourseHours) {
+        boolean[] matches = matchingSubjects(subject.toLowerCase());
+        int[] ends = new int[matches.length];
+        long bySubject = 0;
+        for (int s = 0; s < matches.length; s++) {
+            if (matches[s]) {
+                ends[s] = groupStart[s]
+                    + countAtLeast(groupAudited, groupStart[s], groupStart[s + 1], percentAudited);
+                bySubject += ends[s] - groupStart[s];
+            }
+        }
+        int byHour = countAtMost(hours, totalCourseHours);
+
+        BitSet titles = new BitSet();
+        NumericKernels kernels = NumericKernels.INSTANCE;
+        if (bySubject <= byHour) {
+            long[] bits = new long[(int) bySubject + 63 >>> 6];
+            for (int s = 0; s < matches.length; s++) {
+                if (!matches[s]) {
+                    continue;
+                }
+                kernels.atMost(groupHours, groupStart[s], ends[s], totalCourseHours, bits);
+                for (int w = 0; w << 6 < ends[s] - groupStart[s]; w++) {
+                    int first = groupStart[s] + (w << 6);
+                    for (long word = bits[w]; word != 0; word &= word - 1) {
+                        titles.set(courseTitle[groupRows[first + Long.numberOfTrailingZeros(word)]]);
+                    }
+                }
+            }
+        } else {
+            long[] bits = new long[byHour + 63 >>> 6];
+            kernels.atLeast(hoursAudited, 0, byHour, percentAudited, bits);
+            for (int w = 0; w < bits.length; w++) {
+                for (long word = bits[w]; word != 0; word &= word - 1) {
+                    int row = byHours[(w << 6) + Long.numberOfTrailingZeros(word)];
+                    if (matches[subjectOf[row]]) {
+                        titles.set(courseTitle[row]);
+                    }
+                }
+            }
+        }
+        List<String> result = new ArrayList<>(titles.cardinality());
+        for (int code = titles.nextSetBit(0); code >= 0; code = titles.nextSetBit(code + 1)) {
+            result.add(strings[code]);
+        }
+        result.sort(null);
+        return result;
+    }
+
+    private boolean[] matchingSubjects(String needle) {
+        boolean[] matches = new boolean[lowered.length];
+        if (needle.length() < 3) {
+            for (int s = 0; s < lowered.length; s++) {
+                matches[s] = lowered[s].contains(needle);
+            }
+            return matches;
+        }
+        int[] candidates = null;
+        for (int c = 0; c + 3 <= needle.length(); c++) {
+            int[] posting = trigrams.get(trigram(needle, c));
+            if (posting == null) {
+                return matches;
+            }
+            candidates = candidates == null ? posting : intersect(candidates, posting);
+        }
+        for (int s : candidates) {
+            matches[s] = lowered[s].contains(needle);
+        }
+        return matches;
+    }
+
+    private static long trigram(String s, int at) {
+        return (long) s.charAt(at) << 32 | (long) s.charAt(at + 1) << 16 | s.charAt(at + 2);
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int n = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    /** Number of leading values in descending {@code values[from, to)} that are at least {@code min}. */
+    private static int countAtLeast(double[] values, int from, int to, double min) {
+        int lo = from;
+        int hi = to;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (values[mid] >= min) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo - from;
+    }
+
+    /** Number of leading values in ascending {@code values} that are at most {@code max}. */
+    private static int countAtMost(double[] values, double max) {
+        int lo = 0;
+        int hi = values.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (values[mid] <= max) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
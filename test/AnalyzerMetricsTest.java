@@ -0,0 +1,133 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AnalyzerMetricsTest {
+
+    /** Counts every event it receives. */
+    private static final class CountingListener implements AnalyzerListener {
+
+        final Map<String, AtomicLong> events = new ConcurrentHashMap<>();
+        final AtomicLong rows = new AtomicLong();
+        final List<CourseFormatException> rejected = new ArrayList<>();
+
+        @Override
+        public void phaseCompleted(Phase phase, long nanos, long allocatedBytes) {
+            assertTrue(nanos > 0 && allocatedBytes >= 0);
+            record(phase.name());
+        }
+
+        @Override
+        public void rowsLoaded(long rows) {
+            this.rows.addAndGet(rows);
+        }
+
+        @Override
+        public void queryCompleted(String query, long nanos, long allocatedBytes) {
+            assertTrue(nanos > 0 && allocatedBytes >= 0);
+            record(query);
+        }
+
+        @Override
+        public synchronized void rowRejected(CourseFormatException error) {
+            rejected.add(error);
+        }
+
+        private void record(String name) {
+            events.computeIfAbsent(name, k -> new AtomicLong()).incrementAndGet();
+        }
+
+        long count(String name) {
+            AtomicLong n = events.get(name);
+            return n == null ? 0 : n.get();
+        }
+    }
+
+    @Test
+    void testLoadAndQueriesAreReported() {
+        CountingListener listener = new CountingListener();
+        OnlineCoursesAnalyzer analyzer = OnlineCoursesAnalyzer.materialized("resources/local.csv",
+            ForkJoinPool.commonPool(), listener);
+        assertEquals(288, listener.rows.get());
+        for (AnalyzerListener.Phase phase : AnalyzerListener.Phase.values()) {
+            assertEquals(1, listener.count(phase.name()));
+        }
+
+        LocalAnswers.assertAllQueries(analyzer);
+        analyzer.getCourseListOfInstructor("Eric S. Lander");
+        assertEquals(1, listener.count("getPtcpCountByInst"));
+        assertEquals(1, listener.count("getPtcpCountByInstAndSubject"));
+        assertEquals(2, listener.count("getCourseListOfInstructor"));
+        assertEquals(2, listener.count("getCourses"));
+        assertEquals(2, listener.count("searchCourses"));
+        assertEquals(3, listener.count("recommendCourses"));
+        assertEquals(List.of(), listener.rejected);
+
+        analyzer.setListener(null);
+        analyzer.getPtcpCountByInst();
+        assertEquals(1, listener.count("getPtcpCountByInst"));
+    }
+
+    @Test
+    void testMalformedRowIsRejected() throws IOException {
+        List<String> lines = new ArrayList<>(Files.readAllLines(Paths.get("resources", "local.csv")));
+        lines.set(101, lines.get(101).substring(0, lines.get(101).lastIndexOf(',')));
+        Path file = Files.createTempFile("courses", ".csv");
+        try {
+            Files.write(file, lines);
+            AnalyzerMetrics metrics = new AnalyzerMetrics();
+            CourseFormatException error = assertThrows(CourseFormatException.class,
+                () -> OnlineCoursesAnalyzer.materialized(file.toString(), ForkJoinPool.commonPool(), metrics));
+            assertEquals(102, error.getLine());
+            assertEquals(1, metrics.getRowsRejected());
+
+            OnlineCoursesAnalyzer rereading = new OnlineCoursesAnalyzer(file.toString());
+            rereading.setListener(metrics);
+            assertThrows(CourseFormatException.class, rereading::getPtcpCountByInst);
+            assertEquals(2, metrics.getRowsRejected());
+            assertEquals(Map.of("getPtcpCountByInst", 1L), metrics.getCounts());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void testMetricsAreReadableOverJmx() throws JMException {
+        AnalyzerMetrics metrics = new AnalyzerMetrics();
+        OnlineCoursesAnalyzer analyzer = OnlineCoursesAnalyzer.materialized("resources/local.csv",
+            ForkJoinPool.commonPool(), metrics);
+        analyzer.getCourses(10, "hours");
+        analyzer.getCourses(10, "hours");
+        ObjectName name = metrics.register("local");
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            assertEquals(288L, server.getAttribute(name, "RowsLoaded"));
+            assertEquals(0L, server.getAttribute(name, "RowsRejected"));
+            assertEquals(2L, metrics.getCounts().get("getCourses"));
+            assertEquals(1L, metrics.getCounts().get("PARSE"));
+            long[] histogram = metrics.getLatencyHistograms().get("getCourses");
+            assertEquals(2, Arrays.stream(histogram).sum());
+            assertNotNull(server.getAttribute(name, "LatencyHistograms"));
+            server.invoke(name, "reset", null, null);
+            assertEquals(Map.of(), metrics.getCounts());
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AnalyzerRefreshTest {
+
+    private static List<String> localLines() throws IOException {
+        return Files.readAllLines(Paths.get("resources", "local.csv"));
+    }
+
+    private static void write(Path file, List<String> lines, StandardOpenOption... options) throws IOException {
+        Files.writeString(file, String.join("\n", lines) + "\n", options);
+    }
+
+    @Test
+    void testAppendedRowsAreFoldedIn() throws IOException {
+        List<String> lines = localLines();
+        Path file = Files.createTempFile("courses", ".csv");
+        try {
+            write(file, lines.subList(0, 100));
+            OnlineCoursesAnalyzer analyzer = OnlineCoursesAnalyzer.materialized(file.toString());
+            analyzer.memoizeRecommendations(true);
+            int[] ages = {10, 20, 30, 40, 50, 60, 70};
+            int[] genders = new int[ages.length];
+            int[] degrees = {1, 1, 1, 1, 1, 1, 1};
+            analyzer.recommendCourses(ages, genders, degrees);
+            assertFalse(analyzer.refresh());
+
+            write(file, lines.subList(100, 200), StandardOpenOption.APPEND);
+            Files.writeString(file, lines.get(200).substring(0, 10), StandardOpenOption.APPEND);
+            assertTrue(analyzer.refresh());
+            Files.writeString(file, lines.get(200).substring(10) + "\n", StandardOpenOption.APPEND);
+            write(file, lines.subList(201, lines.size()), StandardOpenOption.APPEND);
+            assertTrue(analyzer.refresh());
+            assertFalse(analyzer.refresh());
+
+            LocalAnswers.assertAllQueries(analyzer);
+            OnlineCoursesAnalyzer fresh = OnlineCoursesAnalyzer.materialized(file.toString());
+            for (int age = 10; age <= 70; age += 10) {
+                assertEquals(fresh.recommendCourses(age, 0, 1), analyzer.recommendCourses(age, 0, 1));
+            }
+            assertEquals(fresh.recommendCourses(ages, genders, degrees),
+                analyzer.recommendCourses(ages, genders, degrees));
+            for (CourseMetric metric : CourseMetric.values()) {
+                assertEquals(fresh.getCourses(20, metric.key), analyzer.getCourses(20, metric.key));
+            }
+            for (String subject : new String[] {"", "sc", "science", "humanities"}) {
+                assertEquals(fresh.searchCourses(subject, 15, 300), analyzer.searchCourses(subject, 15, 300));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static CourseStore.Builder rows(List<String> lines) {
+        CourseStore.Builder builder = new CourseStore.Builder();
+        CourseTokenizer tokenizer = new CourseTokenizer();
+        for (String line : lines) {
+            builder.add(tokenizer.next(line));
+        }
+        return builder;
+    }
+
+    private static void assertSameRows(CourseStore expected, int expectedFrom, CourseStore actual, int actualFrom,
+        int rows) {
+        for (int i = 0; i < rows; i++) {
+            int e = expectedFrom + i;
+            int a = actualFrom + i;
+            assertEquals(expected.title(e), actual.title(a));
+            assertEquals(expected.strings[expected.instructors[e]], actual.strings[actual.instructors[a]]);
+            assertEquals(expected.participant[e], actual.participant[a]);
+            assertEquals(expected.medianAge[e], actual.medianAge[a]);
+        }
+    }
+
+    @Test
+    void testAppendsWritePastTheColumnsOfTheNewestStore() throws IOException {
+        List<String> lines = localLines();
+        CourseStore whole = rows(lines.subList(1, lines.size())).build();
+        CourseStore base = rows(lines.subList(1, 100)).build();
+        CourseStore first = base.append(rows(lines.subList(100, 150)));
+        CourseStore second = first.append(rows(lines.subList(150, 190)));
+        assertSame(first.participant, second.participant);
+
+        // Appending to a store that was already appended to must not overwrite the newer rows.
+        CourseStore branch = first.append(rows(lines.subList(200, 210)));
+        assertNotSame(first.participant, branch.participant);
+        assertEquals(190 - 1, second.size);
+        assertSameRows(whole, 0, second, 0, second.size);
+        assertSameRows(whole, 0, branch, 0, first.size);
+        assertSameRows(whole, 199, branch, first.size, 10);
+
+        Path file = Files.createTempFile("courses", ".snapshot");
+        try {
+            CourseSnapshot.write(second, file);
+            CourseStore read = CourseSnapshot.read(file);
+            assertEquals(second.size, read.size);
+            assertSameRows(whole, 0, read, 0, read.size);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void testRowWrittenInTwoHalvesIsLoadedOnceComplete() throws IOException {
+        List<String> lines = localLines();
+        Path file = Files.createTempFile("courses", ".csv");
+        Path complete = Files.createTempFile("courses", ".csv");
+        try {
+            write(complete, lines.subList(0, 100));
+            write(file, lines.subList(0, 100));
+            String half = lines.get(100).substring(0, lines.get(100).length() / 2);
+            Files.writeString(file, half, StandardOpenOption.APPEND);
+            AnalyzerMetrics metrics = new AnalyzerMetrics();
+            OnlineCoursesAnalyzer analyzer = OnlineCoursesAnalyzer.materialized(file.toString(),
+                ForkJoinPool.commonPool(), metrics);
+            assertEquals(OnlineCoursesAnalyzer.materialized(complete.toString()).getPtcpCountByInst(),
+                analyzer.getPtcpCountByInst());
+            assertEquals(99, metrics.getRowsLoaded());
+            assertEquals(1, metrics.getRowsRejected());
+            assertFalse(analyzer.refresh());
+
+            Files.writeString(file, lines.get(100).substring(half.length()) + "\n", StandardOpenOption.APPEND);
+            write(file, lines.subList(101, lines.size()), StandardOpenOption.APPEND);
+            assertTrue(analyzer.refresh());
+            LocalAnswers.assertAllQueries(analyzer);
+        } finally {
+            Files.delete(file);
+            Files.delete(complete);
+        }
+    }
+
+    @Test
+    void testRewrittenFileIsReloaded() throws IOException {
+        List<String> lines = localLines();
+        Path file = Files.createTempFile("courses", ".csv");
+        try {
+            write(file, lines.subList(0, 50));
+            OnlineCoursesAnalyzer analyzer = OnlineCoursesAnalyzer.materialized(file.toString());
+            OnlineCoursesAnalyzer before = OnlineCoursesAnalyzer.materialized(file.toString());
+            assertEquals(before.getPtcpCountByInst(), analyzer.getPtcpCountByInst());
+
+            write(file, lines);
+            assertTrue(analyzer.refresh());
+            LocalAnswers.assertAllQueries(analyzer);
+
+            write(file, lines.subList(0, 50));
+            assertTrue(analyzer.refresh());
+            assertEquals(before.getPtcpCountByInstAndSubject(), analyzer.getPtcpCountByInstAndSubject());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void testRereadingAnalyzerCannotRefresh() {
+        assertThrows(IllegalStateException.class,
+            () -> new OnlineCoursesAnalyzer("resources/local.csv").refresh());
+    }
+}
@@ -0,0 +1,77 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentAnalyzerTest {
+
+    private static final int THREADS = 64;
+    private static final int CALLS_PER_THREAD = 200;
+
+    @Test
+    void testSharedMaterializedAnalyzer() throws Exception {
+        stress(OnlineCoursesAnalyzer.materialized("resources/local.csv"), CALLS_PER_THREAD);
+    }
+
+    @Test
+    void testSharedRereadingAnalyzer() throws Exception {
+        stress(new OnlineCoursesAnalyzer("resources/local.csv"), 4);
+    }
+
+    /** Every thread fires random queries at one shared analyzer; each answer must be exact. */
+    private static void stress(OnlineCoursesAnalyzer analyzer, int calls) throws Exception {
+        String q1 = LocalAnswers.read("Q1");
+        String q2 = LocalAnswers.read("Q2");
+        String q3 = LocalAnswers.sortedMapToString(analyzer.getCourseListOfInstructor());
+        String[] answers = {LocalAnswers.read("Q4_1"), LocalAnswers.read("Q4_2"),
+            LocalAnswers.read("Q5_1"), LocalAnswers.read("Q5_2"), LocalAnswers.read("Q6_1"),
+            LocalAnswers.read("Q6_2"), LocalAnswers.read("Q6_3")};
+        LocalAnswers.assertAllQueries(analyzer);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(pool.submit((Callable<Void>) () -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < calls; i++) {
+                        switch (random.nextInt(10)) {
+                            case 0 -> assertEquals(q1, LocalAnswers.mapToString(analyzer.getPtcpCountByInst()));
+                            case 1 -> assertEquals(q2,
+                                LocalAnswers.mapToString(analyzer.getPtcpCountByInstAndSubject()));
+                            case 2 -> assertEquals(q3,
+                                LocalAnswers.sortedMapToString(analyzer.getCourseListOfInstructor()));
+                            case 3 -> assertEquals(answers[0],
+                                LocalAnswers.listToString(analyzer.getCourses(10, "hours")));
+                            case 4 -> assertEquals(answers[1],
+                                LocalAnswers.listToString(analyzer.getCourses(15, "participants")));
+                            case 5 -> assertEquals(answers[2],
+                                LocalAnswers.listToString(analyzer.searchCourses("computer", 20.0, 700)));
+                            case 6 -> assertEquals(answers[3],
+                                LocalAnswers.listToString(analyzer.searchCourses("SCIENCE", 25.0, 400)));
+                            case 7 -> assertEquals(answers[4],
+                                LocalAnswers.listToString(analyzer.recommendCourses(25, 1, 1)));
+                            case 8 -> assertEquals(answers[5],
+                                LocalAnswers.listToString(analyzer.recommendCourses(30, 0, 1)));
+                            default -> assertEquals(answers[6],
+                                LocalAnswers.listToString(analyzer.recommendCourses(35, 1, 0)));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CourseCsvGeneratorTest {
+
+    @Test
+    void testScaledFileIsDeterministicAndParses() throws IOException {
+        Path template = Path.of("resources/local.csv");
+        Path first = Files.createTempFile("courses", ".csv");
+        Path second = Files.createTempFile("courses", ".csv");
+        try {
+            CourseCsvGenerator.scale(template, first, 3, 7);
+            CourseCsvGenerator.scale(template, second, 3, 7);
+            assertEquals(-1, Files.mismatch(first, second));
+
+            List<String> original = Files.readAllLines(template);
+            List<String> scaled = Files.readAllLines(first);
+            assertEquals(3 * (original.size() - 1) + 1, scaled.size());
+            assertEquals(original, scaled.subList(0, original.size()));
+
+            CourseStore store = CourseStore.load(first);
+            assertEquals(scaled.size() - 1, store.size);
+            try (var courses = new OnlineCoursesAnalyzer(first.toString()).courseStreamGenerator.get()) {
+                assertEquals(store.size, courses.count());
+            }
+        } finally {
+            Files.delete(first);
+            Files.delete(second);
+        }
+    }
+
+    @Test
+    void testGeneratedFileHasRealisticShape() throws IOException {
+        Path first = Files.createTempFile("courses", ".csv");
+        Path second = Files.createTempFile("courses", ".csv");
+        try {
+            CourseCsvGenerator.generate(first, 6000, 11);
+            CourseCsvGenerator.generate(second, 6000, 11);
+            assertEquals(-1, Files.mismatch(first, second));
+            assertEquals(Files.readAllLines(Path.of("resources/local.csv")).get(0), Files.readAllLines(first).get(0));
+
+            CourseStore store = CourseStore.load(first);
+            assertEquals(6000, store.size);
+            Map<Integer, Integer> offerings = new HashMap<>();
+            Map<Integer, Integer> byInstitution = new HashMap<>();
+            int coTaught = 0;
+            for (int i = 0; i < store.size; i++) {
+                offerings.merge(store.courseNumber[i], 1, Integer::sum);
+                byInstitution.merge(store.institution[i], 1, Integer::sum);
+                coTaught += store.independent[i] ? 0 : 1;
+                assertTrue(store.auditedNum[i] <= store.participant[i]);
+                assertTrue(store.certifiedNum[i] <= store.auditedNum[i]);
+                assertEquals(100, store.maleProportion[i] + store.femaleProportion[i], 0.011);
+                for (double[] column : new double[][] {store.auditedProportion, store.certifiedProportion,
+                    store.playedVideo, store.bachelorDegreeOrHigherProportion}) {
+                    assertTrue(column[i] >= 0 && column[i] <= 100);
+                }
+            }
+            assertTrue(offerings.size() < store.size / 2, "course numbers repeat across launches");
+            assertTrue(Collections.max(offerings.values()) >= 10, "some courses are offered many times");
+            assertTrue(coTaught > store.size / 10, "quoted multi-instructor fields are common");
+            assertTrue(Collections.max(byInstitution.values()) > store.size / 5, "institutions are skewed");
+
+            OnlineCoursesAnalyzer materialized = OnlineCoursesAnalyzer.materialized(first.toString());
+            OnlineCoursesAnalyzer rereading = new OnlineCoursesAnalyzer(first.toString());
+            assertEquals(rereading.getPtcpCountByInstAndSubject(), materialized.getPtcpCountByInstAndSubject());
+            assertEquals(rereading.getCourseListOfInstructor(), materialized.getCourseListOfInstructor());
+            assertEquals(rereading.recommendCourses(30, 1, 1), materialized.recommendCourses(30, 1, 1));
+        } finally {
+            Files.delete(first);
+            Files.delete(second);
+        }
+    }
+}
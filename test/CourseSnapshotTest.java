@@ -0,0 +1,121 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CourseSnapshotTest {
+
+    @Test
+    void testRoundTripGivesIdenticalAnswers() throws IOException {
+        OnlineCoursesAnalyzer fromCsv = OnlineCoursesAnalyzer.materialized("resources/local.csv");
+        Path file = Files.createTempFile("courses", ".snapshot");
+        try {
+            fromCsv.writeSnapshot(file.toString());
+            OnlineCoursesAnalyzer fromSnapshot = OnlineCoursesAnalyzer.fromSnapshot(file.toString());
+            LocalAnswers.assertAllQueries(fromSnapshot);
+            assertEquals(fromCsv.getCourseListOfInstructor(), fromSnapshot.getCourseListOfInstructor());
+            for (CourseMetric metric : CourseMetric.values()) {
+                assertEquals(fromCsv.getCourses(25, metric.key), fromSnapshot.getCourses(25, metric.key));
+            }
+            for (int age = 10; age <= 70; age += 5) {
+                assertEquals(fromCsv.recommendCourses(age, 1, 0), fromSnapshot.recommendCourses(age, 1, 0));
+            }
+            assertEquals(fromCsv.searchCourses("a", 0, 10000), fromSnapshot.searchCourses("a", 0, 10000));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void testCorruptionIsDetected() throws IOException {
+        Path file = Files.createTempFile("courses", ".snapshot");
+        try {
+            OnlineCoursesAnalyzer.materialized("resources/local.csv").writeSnapshot(file.toString());
+            byte[] bytes = Files.readAllBytes(file);
+            bytes[bytes.length - 3] ^= 1;
+            Files.write(file, bytes);
+            RuntimeException e = assertThrows(RuntimeException.class,
+                () -> OnlineCoursesAnalyzer.fromSnapshot(file.toString()));
+            assertTrue(e.getCause().getMessage().contains("checksum mismatch"));
+
+            Files.write(file, new byte[] {'O', 'C'});
+            assertThrows(RuntimeException.class, () -> OnlineCoursesAnalyzer.fromSnapshot(file.toString()));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void testTruncatedSnapshotIsRejected() throws IOException {
+        Path file = Files.createTempFile("courses", ".snapshot");
+        try {
+            OnlineCoursesAnalyzer.materialized("resources/local.csv").writeSnapshot(file.toString());
+            byte[] bytes = Files.readAllBytes(file);
+            Files.write(file, Arrays.copyOf(bytes, bytes.length / 2));
+            IOException e = assertThrows(IOException.class, () -> CourseSnapshot.read(file));
+            assertTrue(e.getMessage().contains("out of bounds"), e.getMessage());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void testInconsistentSnapshotIsRejectedEvenWithValidChecksums() throws IOException {
+        Path file = Files.createTempFile("courses", ".snapshot");
+        try {
+            OnlineCoursesAnalyzer.materialized("resources/local.csv").writeSnapshot(file.toString());
+            byte[] original = Files.readAllBytes(file);
+
+            // More rows than the columns hold.
+            assertRejected(file, original, image -> image.putInt(8, image.getInt(8) + 1), "expected");
+            // The last string ends past the string bytes.
+            assertRejected(file, original, image -> {
+                int strings = image.getInt(12);
+                int offsets = (int) image.getLong(TABLE_START);
+                image.putInt(offsets + 4 * strings, image.getInt(offsets + 4 * strings) + 1);
+            }, "string offsets");
+            // A title code beyond the dictionary.
+            assertRejected(file, original, image -> {
+                int titles = (int) image.getLong(TABLE_START + 5 * 24);
+                image.putInt(titles, image.getInt(12));
+            }, "out of range");
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static final int TABLE_START = 24;
+
+    /** Applies {@code edit} to a copy of {@code original}, fixes every checksum and expects an IOException. */
+    private static void assertRejected(Path file, byte[] original, Consumer<ByteBuffer> edit, String reason)
+        throws IOException {
+        ByteBuffer image = ByteBuffer.wrap(original.clone()).order(ByteOrder.LITTLE_ENDIAN);
+        edit.accept(image);
+        int sections = image.getInt(16);
+        for (int s = 0; s < sections; s++) {
+            int entry = TABLE_START + s * 24;
+            int offset = (int) image.getLong(entry);
+            int length = (int) image.getLong(entry + 8);
+            image.putLong(entry + 16, crc(image, offset, offset + length));
+        }
+        int tableEnd = TABLE_START + sections * 24;
+        image.putLong(tableEnd, crc(image, 0, tableEnd));
+        Files.write(file, image.array());
+        IOException e = assertThrows(IOException.class, () -> CourseSnapshot.read(file));
+        assertTrue(e.getMessage().contains(reason), e.getMessage());
+    }
+
+    private static long crc(ByteBuffer image, int from, int to) {
+        CRC32C crc = new CRC32C();
+        crc.update(image.array(), from, to - from);
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,94 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CourseTokenizerTest {
+
+    private static final String LEGACY_SPLIT = ",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)";
+
+    @Test
+    void testParityWithRegexSplitOnLocalCsv() throws IOException, ParseException {
+        List<String> lines = Files.readAllLines(Paths.get("resources", "local.csv"));
+        CourseTokenizer tokenizer = new CourseTokenizer();
+        SimpleDateFormat format = new SimpleDateFormat("MM/dd/yyyy");
+        for (String line : lines.subList(1, lines.size())) {
+            String[] expected = line.split(LEGACY_SPLIT, -1);
+            CourseTokenizer fields = tokenizer.next(line);
+            assertEquals(CourseTokenizer.COLUMNS, expected.length);
+            assertEquals(expected[0], fields.raw(0));
+            assertEquals(expected[1], fields.raw(1));
+            assertEquals(format.parse(expected[2]).toInstant().atZone(ZoneId.systemDefault())
+                .toLocalDate().toEpochDay(), fields.epochDayField(2));
+            for (int i = 3; i <= 5; i++) {
+                assertEquals(expected[i].replace("\"", ""), fields.unquoted(i));
+            }
+            for (int i = 6; i <= 10; i++) {
+                assertEquals(Integer.parseInt(expected[i]), fields.intField(i));
+            }
+            for (int i = 11; i < CourseTokenizer.COLUMNS; i++) {
+                assertEquals(Double.parseDouble(expected[i]), fields.doubleField(i));
+            }
+        }
+    }
+
+    @Test
+    void testEpochDaysMatchLocalDate() {
+        CourseTokenizer tokenizer = new CourseTokenizer();
+        for (LocalDate date = LocalDate.of(1600, 1, 1); date.getYear() < 2400; date = date.plusDays(1)) {
+            String field = String.format("%02d/%02d/%d", date.getMonthValue(), date.getDayOfMonth(), date.getYear());
+            assertEquals(date.toEpochDay(), tokenizer.next("MITx,6.002x," + field + ",Circuits,A,Science,1,1,"
+                + "36105,5431,3003,15.04,8.32,54.98,83.2,8.17,28.97,418.94,64.45,26,88.28,11.72,60.68")
+                .epochDayField(2));
+        }
+        for (String invalid : new String[] {"02/29/2015", "02/30/2016", "04/31/2013", "13/01/2013", "00/10/2013",
+            "01/00/2013", "1/1/10000"}) {
+            assertThrows(CourseFormatException.class, () -> tokenizer.next("MITx,6.002x," + invalid
+                + ",Circuits,A,Science,1,1,36105,5431,3003,15.04,8.32,54.98,83.2,8.17,28.97,418.94,64.45,26,"
+                + "88.28,11.72,60.68").epochDayField(2));
+        }
+        assertEquals(LocalDate.of(2016, 2, 29).toEpochDay(), CourseTokenizer.epochDay(2016, 2, 29));
+        assertEquals(LocalDate.of(1, 1, 1).toEpochDay(), CourseTokenizer.epochDay(1, 1, 1));
+    }
+
+    @Test
+    void testMalformedRowsReportLineAndColumn() {
+        CourseTokenizer tokenizer = new CourseTokenizer();
+        tokenizer.next("MITx,6.002x,09/05/2012,Circuits,\"A, B\",Science,1,1,36105,5431,3003,"
+            + "15.04,8.32,54.98,83.2,8.17,28.97,418.94,64.45,26,88.28,11.72,60.68");
+
+        CourseFormatException tooShort = assertThrows(CourseFormatException.class,
+            () -> tokenizer.next("MITx,6.002x,09/05/2012"));
+        assertEquals(3, tooShort.getLine());
+        assertEquals(23, tooShort.getColumn());
+
+        CourseFormatException badNumber = assertThrows(CourseFormatException.class,
+            () -> tokenizer.next("MITx,6.002x,09/05/2012,Circuits,A,Science,1,1,36x05,5431,3003,"
+                + "15.04,8.32,54.98,83.2,8.17,28.97,418.94,64.45,26,88.28,11.72,60.68").intField(8));
+        assertEquals(4, badNumber.getLine());
+        assertEquals(49, badNumber.getColumn());
+
+        CourseFormatException unterminated = assertThrows(CourseFormatException.class,
+            () -> tokenizer.next("MITx,6.002x,09/05/2012,\"Circuits"));
+        assertEquals(5, unterminated.getLine());
+    }
+
+    @Test
+    void testNextNeverWritesToABorrowedBuffer() throws IOException {
+        List<String> lines = Files.readAllLines(Paths.get("resources", "local.csv"));
+        char[] borrowed = lines.get(1).toCharArray();
+        char[] before = borrowed.clone();
+        CourseTokenizer tokenizer = new CourseTokenizer();
+        assertEquals(lines.get(1).split(",")[0], tokenizer.tokenize(borrowed, 0, borrowed.length, 2).raw(0));
+        assertEquals(lines.get(2).split(",")[0], tokenizer.next(lines.get(2)).raw(0));
+        assertArrayEquals(before, borrowed);
+    }
+}
@@ -0,0 +1,76 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DistinctTopKTest {
+
+    private record Entry(double primary, long secondary, int title) {
+    }
+
+    private static List<Entry> entries(Random random, int n, int titles) {
+        List<Entry> entries = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            entries.add(new Entry(random.nextInt(30), random.nextInt(3), random.nextInt(titles)));
+        }
+        return entries;
+    }
+
+    /** {@code sorted(...).map(title).distinct().limit(k)}, names breaking the remaining ties. */
+    private static List<Integer> expected(List<Entry> entries, int k, boolean descending) {
+        Comparator<Entry> byPrimary = Comparator.comparingDouble(Entry::primary);
+        return entries.stream()
+            .sorted((descending ? byPrimary.reversed() : byPrimary).thenComparingLong(Entry::secondary)
+                .thenComparing(e -> name(e.title())))
+            .map(Entry::title).distinct().limit(k).collect(Collectors.toList());
+    }
+
+    private static String name(int title) {
+        return "Title " + title;
+    }
+
+    @Test
+    void testCodesAndNamesMatchSortDistinctLimit() {
+        Random random = new Random(11);
+        for (int round = 0; round < 200; round++) {
+            List<Entry> entries = entries(random, random.nextInt(300), 1 + random.nextInt(60));
+            int k = random.nextInt(12);
+            boolean descending = random.nextBoolean();
+            List<String> expectedNames = expected(entries, k, descending).stream().map(DistinctTopKTest::name)
+                .collect(Collectors.toList());
+
+            DistinctTopK byName = new DistinctTopK(k, descending);
+            DistinctTopK firstHalf = new DistinctTopK(k, descending);
+            DistinctTopK secondHalf = new DistinctTopK(k, descending);
+            for (int i = 0; i < entries.size(); i++) {
+                Entry e = entries.get(i);
+                byName.offer(e.primary(), e.secondary(), name(e.title()));
+                (i % 2 == 0 ? firstHalf : secondHalf).offer(e.primary(), e.secondary(), name(e.title()));
+            }
+            assertEquals(expectedNames, byName.titleNames());
+            assertEquals(expectedNames, byName.titleNames(), "reading the titles keeps the heap intact");
+            assertEquals(expectedNames, firstHalf.addAll(secondHalf).titleNames());
+
+            // Secondary keys decide every tie here, so codes agree with names.
+            DistinctTopK byCode = new DistinctTopK(k, descending, 8);
+            List<Entry> distinctSecondaries = new ArrayList<>();
+            for (int i = 0; i < entries.size(); i++) {
+                Entry e = entries.get(i);
+                distinctSecondaries.add(new Entry(e.primary(), i, e.title()));
+            }
+            for (int pass = 0; pass < 2; pass++) {
+                byCode.clear();
+                for (Entry e : distinctSecondaries) {
+                    byCode.offer(e.primary(), e.secondary(), e.title());
+                }
+                assertArrayEquals(expected(distinctSecondaries, k, descending).stream().mapToInt(Integer::intValue)
+                    .toArray(), byCode.titles());
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LaunchWindowTest {
+
+    /** Every query of {@code window} against an analyzer of a file holding just its rows. */
+    private static void assertSameAnswers(OnlineCoursesAnalyzer window, LocalDate from, LocalDate to)
+        throws IOException {
+        List<String> lines = Files.readAllLines(Paths.get("resources", "local.csv"));
+        List<String> kept = new ArrayList<>(List.of(lines.get(0)));
+        CourseTokenizer tokenizer = new CourseTokenizer();
+        for (String line : lines.subList(1, lines.size())) {
+            long day = tokenizer.next(line).epochDayField(2);
+            if (day >= from.toEpochDay() && day < to.toEpochDay()) {
+                kept.add(line);
+            }
+        }
+        Path file = Files.createTempFile("courses", ".csv");
+        try {
+            Files.write(file, kept);
+            OnlineCoursesAnalyzer expected = new OnlineCoursesAnalyzer(file.toString());
+            assertEquals(expected.getPtcpCountByInst(), window.getPtcpCountByInst());
+            assertEquals(new ArrayList<>(expected.getPtcpCountByInstAndSubject().entrySet()),
+                new ArrayList<>(window.getPtcpCountByInstAndSubject().entrySet()));
+            assertEquals(expected.getCourseListOfInstructor(), window.getCourseListOfInstructor());
+            for (CourseMetric metric : CourseMetric.values()) {
+                assertEquals(expected.getCourses(15, metric.key), window.getCourses(15, metric.key));
+            }
+            assertEquals(expected.searchCourses("science", 10, 500), window.searchCourses("science", 10, 500));
+            for (int age = 20; age <= 40; age += 10) {
+                assertEquals(expected.recommendCourses(age, 1, 0), window.recommendCourses(age, 1, 0));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void testYearsMatchFilteredFile() throws IOException {
+        OnlineCoursesAnalyzer materialized = OnlineCoursesAnalyzer.materialized("resources/local.csv");
+        OnlineCoursesAnalyzer rereading = new OnlineCoursesAnalyzer("resources/local.csv");
+        OnlineCoursesAnalyzer streaming = OnlineCoursesAnalyzer.streaming("resources/local.csv", 4096);
+        int total = 0;
+        for (int year = 2011; year <= 2017; year++) {
+            LocalDate from = LocalDate.of(year, 1, 1);
+            LocalDate to = from.plusYears(1);
+            assertSameAnswers(materialized.launchedIn(year), from, to);
+            assertSameAnswers(rereading.launchedIn(year), from, to);
+            assertSameAnswers(streaming.launchedIn(year), from, to);
+            total += materialized.launchedIn(year).getPtcpCountByInst().values().stream()
+                .mapToInt(Integer::intValue).sum();
+        }
+        assertEquals(materialized.getPtcpCountByInst().values().stream().mapToInt(Integer::intValue).sum(),
+            total);
+    }
+
+    @Test
+    void testArbitraryWindows() throws IOException {
+        OnlineCoursesAnalyzer materialized = OnlineCoursesAnalyzer.materialized("resources/local.csv");
+        LocalDate from = LocalDate.of(2013, 9, 5);
+        LocalDate to = LocalDate.of(2015, 3, 17);
+        assertSameAnswers(materialized.launchedBetween(from, to), from, to);
+        assertSameAnswers(materialized.launchedBetween(LocalDate.MIN, LocalDate.MAX), LocalDate.MIN, LocalDate.MAX);
+        assertEquals(List.of(), materialized.launchedBetween(to, from).getCourses(10, "hours"));
+        assertThrows(IllegalStateException.class, () -> materialized.launchedIn(2014).refresh());
+    }
+}
@@ -0,0 +1,65 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The expected answers from {@code resources/local_answer}, for comparing any analyzer
+ * configuration against {@code resources/local.csv}.
+ */
+final class LocalAnswers {
+
+    private LocalAnswers() {
+    }
+
+    static String read(String name) {
+        try {
+            return Files.readString(Paths.get("resources", "local_answer", name + ".txt"),
+                    StandardCharsets.UTF_8)
+                .replace("\r", "").strip();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static String mapToString(Map<?, ?> map) {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            sb.append(entry.getKey()).append(" == ").append(entry.getValue()).append("\n");
+        }
+        return sb.toString().strip();
+    }
+
+    static String listToString(Collection<String> list) {
+        return String.join("\n", list).strip();
+    }
+
+    /** Q3 is compared without regard to the order of instructors. */
+    static String sortedMapToString(Map<String, ?> map) {
+        return mapToString(new TreeMap<>(map));
+    }
+
+    static void assertAllQueries(OnlineCoursesAnalyzer analyzer) {
+        assertEquals(read("Q1"), mapToString(analyzer.getPtcpCountByInst()));
+        assertEquals(read("Q2"), mapToString(analyzer.getPtcpCountByInstAndSubject()));
+        Map<String, String> q3 = new TreeMap<>();
+        for (String row : read("Q3").split("\n")) {
+            String[] kv = row.split(" == ");
+            q3.put(kv[0], kv[1]);
+        }
+        assertEquals(sortedMapToString(q3), sortedMapToString(analyzer.getCourseListOfInstructor()));
+        assertEquals(read("Q4_1"), listToString(analyzer.getCourses(10, "hours")));
+        assertEquals(read("Q4_2"), listToString(analyzer.getCourses(15, "participants")));
+        assertEquals(read("Q5_1"), listToString(analyzer.searchCourses("computer", 20.0, 700)));
+        assertEquals(read("Q5_2"), listToString(analyzer.searchCourses("SCIENCE", 25.0, 400)));
+        assertEquals(read("Q6_1"), listToString(analyzer.recommendCourses(25, 1, 1)));
+        assertEquals(read("Q6_2"), listToString(analyzer.recommendCourses(30, 0, 1)));
+        assertEquals(read("Q6_3"), listToString(analyzer.recommendCourses(35, 1, 0)));
+    }
+}
@@ -0,0 +1,126 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class MaterializedAnalyzerTest {
+
+    @Test
+    void testMaterializedMatchesLocalAnswers() {
+        LocalAnswers.assertAllQueries(OnlineCoursesAnalyzer.materialized("resources/local.csv"));
+    }
+
+    @Test
+    void testRereadingMatchesLocalAnswers() {
+        LocalAnswers.assertAllQueries(new OnlineCoursesAnalyzer("resources/local.csv"));
+    }
+
+    @Test
+    void testSingleInstructorLookup() {
+        OnlineCoursesAnalyzer analyzer = OnlineCoursesAnalyzer.materialized("resources/local.csv");
+        assertEquals(List.of(List.of(), List.of("Quantitative Biology Workshop")),
+            analyzer.getCourseListOfInstructor("Eric S. Lander"));
+        assertEquals(analyzer.getCourseListOfInstructor().get("Lorna J. Gibson"),
+            analyzer.getCourseListOfInstructor("Lorna J. Gibson"));
+        assertEquals(List.of(List.of(), List.of()), analyzer.getCourseListOfInstructor("Nobody"));
+    }
+
+    @Test
+    void testRecommendMatchesRereadingPathForAllProfiles() {
+        OnlineCoursesAnalyzer materialized = OnlineCoursesAnalyzer.materialized("resources/local.csv");
+        OnlineCoursesAnalyzer rereading = new OnlineCoursesAnalyzer("resources/local.csv");
+        for (int age = 10; age <= 70; age += 5) {
+            for (int gender = 0; gender <= 1; gender++) {
+                for (int degree = 0; degree <= 1; degree++) {
+                    assertEquals(rereading.recommendCourses(age, gender, degree),
+                        materialized.recommendCourses(age, gender, degree));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testBatchRecommendMatchesSingleProfiles() {
+        OnlineCoursesAnalyzer materialized = OnlineCoursesAnalyzer.materialized("resources/local.csv");
+        OnlineCoursesAnalyzer rereading = new OnlineCoursesAnalyzer("resources/local.csv");
+        Random random = new Random(7);
+        int[] ages = new int[500];
+        int[] genders = new int[ages.length];
+        int[] degrees = new int[ages.length];
+        for (int i = 0; i < ages.length; i++) {
+            ages[i] = 10 + random.nextInt(70);
+            genders[i] = random.nextInt(2);
+            degrees[i] = random.nextInt(2);
+        }
+        for (boolean memoize : new boolean[] {false, true, true}) {
+            materialized.memoizeRecommendations(memoize);
+            List<List<String>> batch = materialized.recommendCourses(ages, genders, degrees);
+            assertEquals(ages.length, batch.size());
+            for (int i = 0; i < ages.length; i++) {
+                assertEquals(materialized.recommendCourses(ages[i], genders[i], degrees[i]), batch.get(i));
+            }
+        }
+        int[] few = Arrays.copyOf(ages, 20);
+        assertEquals(rereading.recommendCourses(few, Arrays.copyOf(genders, 20), Arrays.copyOf(degrees, 20)),
+            materialized.recommendCourses(few, Arrays.copyOf(genders, 20), Arrays.copyOf(degrees, 20)));
+        assertEquals(List.of(), materialized.recommendCourses(new int[0], new int[0], new int[0]));
+        assertThrows(IllegalArgumentException.class,
+            () -> materialized.recommendCourses(new int[2], new int[2], new int[1]));
+    }
+
+    @Test
+    void testGetCoursesMatchesRereadingPathForEveryMetric() {
+        OnlineCoursesAnalyzer materialized = OnlineCoursesAnalyzer.materialized("resources/local.csv");
+        OnlineCoursesAnalyzer rereading = new OnlineCoursesAnalyzer("resources/local.csv");
+        for (CourseMetric metric : CourseMetric.values()) {
+            for (int topK : new int[] {0, 1, 10, 50, 1000}) {
+                assertEquals(rereading.getCourses(topK, metric.key),
+                    materialized.getCourses(topK, metric.key));
+            }
+        }
+        assertEquals(null, materialized.getCourses(10, "unknown"));
+    }
+
+    @Test
+    void testSearchMatchesRereadingPath() {
+        OnlineCoursesAnalyzer materialized = OnlineCoursesAnalyzer.materialized("resources/local.csv");
+        OnlineCoursesAnalyzer rereading = new OnlineCoursesAnalyzer("resources/local.csv");
+        for (String subject : new String[] {"", "c", "SC", "science", "Computer Science", "ience, tech", "xyz"}) {
+            for (double audited : new double[] {0, 10, 25.5, 50, 100}) {
+                for (double hours : new double[] {0, 50, 200, 1000, Double.MAX_VALUE}) {
+                    assertEquals(rereading.searchCourses(subject, audited, hours),
+                        materialized.searchCourses(subject, audited, hours));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testPairsJoiningToTheSameKeyAreSummed() throws IOException {
+        String header = Files.readAllLines(Paths.get("resources", "local.csv")).get(0);
+        String rest = "1,1,%d,5431,3003,15.04,8.32,54.98,83.2,8.17,28.97,418.94,64.45,26,88.28,11.72,60.68";
+        Path file = Files.createTempFile("courses", ".csv");
+        try {
+            Files.write(file, List.of(header,
+                "A-B,1x,09/05/2012,One,Ann Lee,C," + String.format(rest, 7),
+                "A,2x,09/05/2012,Two,Ann Lee,B-C," + String.format(rest, 100)));
+            Map<String, Integer> expected = Map.of("A-B-C", 107);
+            assertEquals(expected, new OnlineCoursesAnalyzer(file.toString()).getPtcpCountByInstAndSubject());
+            assertEquals(expected, OnlineCoursesAnalyzer.materialized(file.toString()).getPtcpCountByInstAndSubject());
+            assertEquals(expected, OnlineCoursesAnalyzer.parallel(file.toString(), ForkJoinPool.commonPool())
+                .getPtcpCountByInstAndSubject());
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class NumericKernelsTest {
+
+    private static double[] values(Random random, int n) {
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = random.nextInt(20) == 0 ? Double.NaN : random.nextInt(1000) / 10.0;
+        }
+        return values;
+    }
+
+    /** Checks {@code kernels} against the plain comparisons and arithmetic on every sub-range shape. */
+    private static void assertKernels(NumericKernels kernels) {
+        Random random = new Random(3);
+        double[] x = values(random, 300);
+        double[] y = values(random, 300);
+        double[] z = values(random, 300);
+        long[] bits = new long[5];
+        double[] out = new double[300];
+        for (int from : new int[] {0, 1, 7, 64, 70}) {
+            for (int to = from; to <= 300; to += 13) {
+                kernels.atMost(x, from, to, 42.5, bits);
+                for (int k = from; k < to; k++) {
+                    assertEquals(x[k] <= 42.5, (bits[(k - from) >>> 6] & 1L << (k - from)) != 0);
+                }
+                for (int w = to - from + 63 >>> 6; w < bits.length; w++) {
+                    bits[w] = -1;
+                }
+                kernels.atLeast(y, from, to, 42.5, bits);
+                for (int k = from; k < to; k++) {
+                    assertEquals(y[k] >= 42.5, (bits[(k - from) >>> 6] & 1L << (k - from)) != 0);
+                }
+                if ((to - from & 63) != 0) {
+                    assertEquals(0, bits[(to - from) >>> 6] >>> (to - from & 63), "bits past the range are clear");
+                }
+
+                kernels.squaredDistances(x, y, z, from, to, 30, 100, 0, out);
+                for (int i = from; i < to; i++) {
+                    double dx = 30 - x[i];
+                    double dy = 100 - y[i];
+                    double dz = 0 - z[i];
+                    assertEquals(Double.doubleToLongBits(dx * dx + dy * dy + dz * dz),
+                        Double.doubleToLongBits(out[i - from]));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testScalarKernels() {
+        assertKernels(NumericKernels.load("scalar"));
+    }
+
+    @Test
+    void testVectorKernelsWhenAvailable() {
+        assumeTrue(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent(),
+            "run with --add-modules jdk.incubator.vector");
+        NumericKernels kernels = NumericKernels.load("vector");
+        assertEquals("VectorKernels", kernels.getClass().getName());
+        assertKernels(kernels);
+    }
+
+    @Test
+    void testUnknownKernelsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> NumericKernels.load("avx"));
+        assertEquals(ScalarKernels.class, NumericKernels.load("scalar").getClass());
+    }
+}
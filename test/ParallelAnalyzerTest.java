@@ -0,0 +1,67 @@
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class ParallelAnalyzerTest {
+
+    private static final String LOCAL_CSV = "resources/local.csv";
+
+    @Test
+    void testForkJoinPoolMatchesSequential() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertMatchesSequential(pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testFixedThreadPoolMatchesSequential() {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            assertMatchesSequential(executor);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testVirtualThreadsMatchSequential() throws ReflectiveOperationException {
+        Method factory;
+        try {
+            factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            factory = null;
+        }
+        assumeTrue(factory != null, "virtual threads need Java 21");
+        ExecutorService executor = (ExecutorService) factory.invoke(null);
+        try {
+            assertMatchesSequential(executor);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void assertMatchesSequential(ExecutorService executor) {
+        OnlineCoursesAnalyzer sequential = new OnlineCoursesAnalyzer(LOCAL_CSV);
+        for (long chunkSize : new long[] {64, 1000, 4096, ParallelCourseLoader.DEFAULT_CHUNK_SIZE}) {
+            OnlineCoursesAnalyzer parallel = OnlineCoursesAnalyzer.parallel(LOCAL_CSV, executor, chunkSize);
+            LocalAnswers.assertAllQueries(parallel);
+            assertEquals(sequential.getCourseListOfInstructor(), parallel.getCourseListOfInstructor());
+            for (CourseMetric metric : CourseMetric.values()) {
+                assertEquals(sequential.getCourses(40, metric.key), parallel.getCourses(40, metric.key));
+            }
+            for (int age = 10; age <= 70; age += 10) {
+                assertEquals(sequential.recommendCourses(age, 0, 1), parallel.recommendCourses(age, 0, 1));
+            }
+            assertEquals(sequential.searchCourses("a", 0, 10000), parallel.searchCourses("a", 0, 10000));
+        }
+    }
+}
@@ -0,0 +1,84 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelCourseLoaderTest {
+
+    private static final Path LOCAL_CSV = Paths.get("resources", "local.csv");
+
+    @Test
+    void testSmallChunksMatchSequentialLoad() throws IOException {
+        CourseStore expected = CourseStore.load(LOCAL_CSV);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (long chunkSize : new long[] {64, 1000, 4096, 1 << 20}) {
+                assertSameRows(expected, ParallelCourseLoader.load(LOCAL_CSV, pool, chunkSize));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testCarriageReturnsAndQuotedLineBreaksSplitLikeTheBoundaries() throws IOException {
+        List<String> lines = Files.readAllLines(LOCAL_CSV);
+        String first = lines.get(1);
+        Path file = Files.createTempFile("courses", ".csv");
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Files.writeString(file, String.join("\r", lines) + "\r");
+            for (long chunkSize : new long[] {64, 1000, 1 << 20}) {
+                assertSameRows(CourseStore.load(LOCAL_CSV), ParallelCourseLoader.load(file, pool, chunkSize));
+            }
+
+            // A title spanning two lines, then a malformed row whose line number counts both.
+            String broken = first.replace("Circuits and Electronics", "\"Circuits\r\nand Electronics\"");
+            Files.writeString(file, lines.get(0) + "\r" + broken + "\r" + first + "\rMITx,6.002x\r" + first + "\r",
+                StandardCharsets.UTF_8);
+            for (long chunkSize : new long[] {16, 64, 1000, 1 << 20}) {
+                CourseFormatException e = assertThrows(CourseFormatException.class,
+                    () -> ParallelCourseLoader.load(file, pool, chunkSize));
+                assertEquals(5, e.getLine(), "chunk size " + chunkSize);
+            }
+            Files.writeString(file, lines.get(0) + "\r" + broken + "\r" + first + "\r", StandardCharsets.UTF_8);
+            for (long chunkSize : new long[] {16, 64, 1000, 1 << 20}) {
+                CourseStore store = ParallelCourseLoader.load(file, pool, chunkSize);
+                assertEquals(2, store.size);
+                assertEquals("Circuits\r\nand Electronics", store.title(0));
+                assertEquals("Circuits and Electronics", store.title(1));
+            }
+        } finally {
+            pool.shutdown();
+            Files.delete(file);
+        }
+    }
+
+    private static void assertSameRows(CourseStore expected, CourseStore actual) {
+        assertEquals(expected.size, actual.size);
+        for (int i = 0; i < expected.size; i++) {
+            assertEquals(expected.title(i), actual.title(i));
+            assertEquals(expected.strings[expected.instructors[i]], actual.strings[actual.instructors[i]]);
+            assertEquals(expected.launchDay[i], actual.launchDay[i]);
+            assertEquals(expected.participant[i], actual.participant[i]);
+            assertEquals(expected.bachelorDegreeOrHigherProportion[i], actual.bachelorDegreeOrHigherProportion[i]);
+        }
+    }
+
+    @Test
+    void testMaterializedOnCustomPoolMatchesLocalAnswers() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            LocalAnswers.assertAllQueries(OnlineCoursesAnalyzer.materialized(LOCAL_CSV.toString(), pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PartitionedAnalyzerTest {
+
+    private List<String> lines;
+    private Path dir;
+    private ExecutorService pool;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        lines = Files.readAllLines(Paths.get("resources", "local.csv"));
+        dir = Files.createTempDirectory("partitions");
+        pool = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        pool.shutdown();
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /** Writes the rows as one file per institution and launch year, returning the rows of each file. */
+    private Map<String, List<String>> writeByInstitutionAndYear() throws IOException {
+        Map<String, List<String>> files = new TreeMap<>();
+        for (String line : lines.subList(1, lines.size())) {
+            String[] fields = line.split(",", 4);
+            String name = fields[0] + "-" + fields[2].substring(6) + ".csv";
+            files.computeIfAbsent(name, k -> new ArrayList<>(List.of(lines.get(0)))).add(line);
+        }
+        for (Map.Entry<String, List<String>> file : files.entrySet()) {
+            Files.write(dir.resolve(file.getKey()), file.getValue());
+        }
+        return files;
+    }
+
+    private Path concatenated(List<List<String>> parts) throws IOException {
+        List<String> all = new ArrayList<>(List.of(lines.get(0)));
+        parts.forEach(part -> all.addAll(part.subList(1, part.size())));
+        Path file = Files.createTempFile(dir, "concatenated", ".txt");
+        Files.write(file, all);
+        return file;
+    }
+
+    private static void assertSameAnswers(OnlineCoursesAnalyzer expected, OnlineCoursesAnalyzer actual) {
+        assertEquals(expected.getPtcpCountByInst(), actual.getPtcpCountByInst());
+        assertEquals(new ArrayList<>(expected.getPtcpCountByInstAndSubject().entrySet()),
+            new ArrayList<>(actual.getPtcpCountByInstAndSubject().entrySet()));
+        assertEquals(expected.getCourseListOfInstructor(), actual.getCourseListOfInstructor());
+        for (CourseMetric metric : CourseMetric.values()) {
+            assertEquals(expected.getCourses(20, metric.key), actual.getCourses(20, metric.key));
+        }
+        assertEquals(expected.searchCourses("science", 10, 500), actual.searchCourses("science", 10, 500));
+        for (int age = 20; age <= 40; age += 10) {
+            assertEquals(expected.recommendCourses(age, 0, 1), actual.recommendCourses(age, 0, 1));
+        }
+    }
+
+    @Test
+    void testConsecutivePartitionsMatchLocalAnswers() throws IOException {
+        for (int from = 1, part = 0; from < lines.size(); from += 40, part++) {
+            List<String> rows = new ArrayList<>(List.of(lines.get(0)));
+            rows.addAll(lines.subList(from, Math.min(lines.size(), from + 40)));
+            Files.write(dir.resolve(String.format("part-%03d.csv", part)), rows);
+        }
+        LocalAnswers.assertAllQueries(OnlineCoursesAnalyzer.partitioned(dir.toString(), pool));
+        LocalAnswers.assertAllQueries(OnlineCoursesAnalyzer.partitioned(dir.resolve("part-*.csv").toString(), pool));
+    }
+
+    @Test
+    void testPartitionsAnswerLikeTheConcatenatedFile() throws IOException {
+        Map<String, List<String>> files = writeByInstitutionAndYear();
+        OnlineCoursesAnalyzer expected = new OnlineCoursesAnalyzer(
+            concatenated(new ArrayList<>(files.values())).toString());
+        assertSameAnswers(expected, OnlineCoursesAnalyzer.partitioned(dir.toString(), pool));
+        for (String file : files.keySet()) {
+            assertTrue(Files.exists(PartitionedDataset.sidecar(dir.resolve(file))));
+        }
+
+        List<List<String>> harvard = files.entrySet().stream().filter(e -> e.getKey().startsWith("HarvardX-"))
+            .map(Map.Entry::getValue).toList();
+        assertSameAnswers(new OnlineCoursesAnalyzer(concatenated(harvard).toString()),
+            OnlineCoursesAnalyzer.partitioned(dir.resolve("HarvardX-*.csv").toString(), pool));
+        // Matches the sidecars written by the loads above as well.
+        assertSameAnswers(new OnlineCoursesAnalyzer(concatenated(harvard).toString()),
+            OnlineCoursesAnalyzer.partitioned(dir.resolve("HarvardX-*").toString(), pool));
+    }
+
+    @Test
+    void testFilterSkipsPartitionsByTheirSidecars() throws IOException {
+        Map<String, List<String>> files = writeByInstitutionAndYear();
+        OnlineCoursesAnalyzer.partitioned(dir.toString(), pool);
+
+        // Garbage of the same size and time: only readable as long as it is never read.
+        for (String file : files.keySet()) {
+            if (!file.equals("MITx-2014.csv")) {
+                Path path = dir.resolve(file);
+                FileTime modified = Files.getLastModifiedTime(path);
+                byte[] garbage = new byte[(int) Files.size(path)];
+                for (int i = 0; i < garbage.length; i++) {
+                    garbage[i] = (byte) (i % 2 == 0 ? 'x' : '\n');
+                }
+                Files.write(path, garbage);
+                Files.setLastModifiedTime(path, modified);
+            }
+        }
+        PartitionFilter filter = PartitionFilter.ALL.onlyInstitutions("MITx").launchedIn(2014);
+        OnlineCoursesAnalyzer filtered = OnlineCoursesAnalyzer.partitioned(dir.toString(), pool, filter);
+        assertSameAnswers(new OnlineCoursesAnalyzer(concatenated(List.of(files.get("MITx-2014.csv"))).toString()),
+            filtered);
+
+        PartitionFilter partOfTheYear = filter.launchedBetween(LocalDate.of(2014, 3, 1), LocalDate.of(2014, 9, 1));
+        assertSameAnswers(new OnlineCoursesAnalyzer(concatenated(List.of(files.get("MITx-2014.csv"))).toString())
+                .launchedBetween(LocalDate.of(2014, 3, 1), LocalDate.of(2014, 9, 1)),
+            OnlineCoursesAnalyzer.partitioned(dir.toString(), pool, partOfTheYear));
+
+        CourseFormatException e = assertThrows(CourseFormatException.class,
+            () -> OnlineCoursesAnalyzer.partitioned(dir.toString(), pool));
+        assertNotEquals("MITx-2014.csv", e.getFile().getFileName().toString());
+        assertTrue(files.containsKey(e.getFile().getFileName().toString()), e.getMessage());
+        assertTrue(e.getMessage().startsWith(e.getFile() + ": line "), e.getMessage());
+    }
+
+    @Test
+    void testStaleSidecarIsRewritten() throws IOException {
+        Map<String, List<String>> files = writeByInstitutionAndYear();
+        OnlineCoursesAnalyzer.partitioned(dir.toString(), pool);
+        Path mit2013 = dir.resolve("MITx-2013.csv");
+        List<String> rows = new ArrayList<>(files.get("MITx-2013.csv"));
+        rows.add(lines.get(1).replace("MITx", "HarvardX"));
+        Files.write(mit2013, rows);
+        Files.setLastModifiedTime(mit2013, FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+
+        PartitionFilter harvard = PartitionFilter.ALL.onlyInstitutions("HarvardX");
+        assertTrue(OnlineCoursesAnalyzer.partitioned(dir.toString(), pool, harvard).getPtcpCountByInst()
+            .containsKey("HarvardX"));
+        assertEquals(Long.toString(rows.size() - 1), readSidecar(mit2013).getProperty("rows"));
+        assertEquals("HarvardX", readSidecar(mit2013).getProperty("minInstitution"));
+    }
+
+    private static Properties readSidecar(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(PartitionedDataset.sidecar(file))) {
+            properties.load(in);
+        }
+        return properties;
+    }
+}
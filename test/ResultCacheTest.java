@@ -0,0 +1,166 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResultCacheTest {
+
+    @Test
+    void testCachedAnswersMatchLocalAnswers() {
+        OnlineCoursesAnalyzer analyzer = new OnlineCoursesAnalyzer("resources/local.csv");
+        analyzer.cacheResults(100);
+        LocalAnswers.assertAllQueries(analyzer);
+        OnlineCoursesAnalyzer.CacheStats first = analyzer.cacheStats();
+        assertEquals(0, first.hits());
+        LocalAnswers.assertAllQueries(analyzer);
+        OnlineCoursesAnalyzer.CacheStats second = analyzer.cacheStats();
+        assertEquals(first.misses(), second.misses());
+        assertEquals(first.misses(), second.hits());
+        assertEquals(first.size(), second.size());
+    }
+
+    @Test
+    void testCachedAnswersAreUnmodifiable() {
+        OnlineCoursesAnalyzer analyzer = OnlineCoursesAnalyzer.parallel("resources/local.csv",
+            ForkJoinPool.commonPool());
+        analyzer.cacheResults(10);
+        assertThrows(UnsupportedOperationException.class, () -> analyzer.getPtcpCountByInst().put("x", 1));
+        assertThrows(UnsupportedOperationException.class, () -> analyzer.getPtcpCountByInstAndSubject().clear());
+        List<List<String>> lists = analyzer.getCourseListOfInstructor().get("Lorna J. Gibson");
+        assertThrows(UnsupportedOperationException.class, () -> lists.get(1).add("x"));
+        assertThrows(UnsupportedOperationException.class, () -> analyzer.getCourses(10, "hours").remove(0));
+        assertThrows(UnsupportedOperationException.class,
+            () -> analyzer.searchCourses("computer", 20, 700).clear());
+        assertThrows(UnsupportedOperationException.class, () -> analyzer.recommendCourses(25, 1, 1).clear());
+        assertEquals(new OnlineCoursesAnalyzer("resources/local.csv").getCourseListOfInstructor(),
+            analyzer.getCourseListOfInstructor());
+    }
+
+    @Test
+    void testUncachedAnswersStayModifiable() {
+        for (OnlineCoursesAnalyzer analyzer : List.of(new OnlineCoursesAnalyzer("resources/local.csv"),
+            OnlineCoursesAnalyzer.materialized("resources/local.csv"),
+            OnlineCoursesAnalyzer.parallel("resources/local.csv", ForkJoinPool.commonPool()),
+            OnlineCoursesAnalyzer.streaming("resources/local.csv", 64L << 20))) {
+            analyzer.getPtcpCountByInst().put("x", 1);
+            analyzer.getPtcpCountByInstAndSubject().clear();
+            analyzer.getCourseListOfInstructor().get("Lorna J. Gibson").clear();
+            analyzer.getCourseListOfInstructor("Lorna J. Gibson").clear();
+            analyzer.getCourses(10, "hours").remove(0);
+            analyzer.searchCourses("computer", 20, 700).clear();
+            analyzer.recommendCourses(25, 1, 1).clear();
+            LocalAnswers.assertAllQueries(analyzer);
+        }
+    }
+
+    @Test
+    void testLeastRecentlyUsedArgumentsAreEvicted() {
+        OnlineCoursesAnalyzer analyzer = new OnlineCoursesAnalyzer("resources/local.csv");
+        analyzer.cacheResults(2);
+        analyzer.getPtcpCountByInst();
+        analyzer.getCourses(10, "hours");
+        analyzer.getCourses(10, "participants");
+        analyzer.getCourses(10, "hours");
+        analyzer.getCourses(20, "hours");
+        analyzer.getCourses(10, "hours");
+        analyzer.getPtcpCountByInst();
+        assertEquals(new OnlineCoursesAnalyzer.CacheStats(3, 4, 1, 0, 3), analyzer.cacheStats());
+        analyzer.getCourses(10, "participants");
+        assertEquals(new OnlineCoursesAnalyzer.CacheStats(3, 5, 2, 0, 3), analyzer.cacheStats());
+    }
+
+    @Test
+    void testChangedFileInvalidatesCache() throws IOException {
+        List<String> lines = Files.readAllLines(Paths.get("resources", "local.csv"));
+        Path file = Files.createTempFile("courses", ".csv");
+        try {
+            Files.write(file, lines.subList(0, 200));
+            OnlineCoursesAnalyzer analyzer = new OnlineCoursesAnalyzer(file.toString());
+            analyzer.cacheResults(10);
+            FileTime modified = Files.getLastModifiedTime(file);
+            List<String> before = analyzer.getCourses(10, "participants");
+            assertSame(before, analyzer.getCourses(10, "participants"));
+
+            Files.write(file, lines);
+            Files.setLastModifiedTime(file, modified);
+            assertEquals(new OnlineCoursesAnalyzer("resources/local.csv").getCourses(10, "participants"),
+                analyzer.getCourses(10, "participants"));
+            assertEquals(1, analyzer.cacheStats().invalidations());
+
+            Files.setLastModifiedTime(file, FileTime.fromMillis(modified.toMillis() + 60_000));
+            analyzer.getCourses(10, "participants");
+            assertEquals(new OnlineCoursesAnalyzer.CacheStats(1, 3, 0, 2, 1), analyzer.cacheStats());
+
+            analyzer.cacheResults(0);
+            assertEquals(new OnlineCoursesAnalyzer.CacheStats(0, 0, 0, 0, 0), analyzer.cacheStats());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void testRefreshInvalidatesCache() throws IOException {
+        List<String> lines = Files.readAllLines(Paths.get("resources", "local.csv"));
+        Path file = Files.createTempFile("courses", ".csv");
+        try {
+            Files.write(file, lines.subList(0, 200));
+            OnlineCoursesAnalyzer analyzer = OnlineCoursesAnalyzer.materialized(file.toString());
+            analyzer.cacheResults(10);
+            Map<String, Integer> before = analyzer.getPtcpCountByInst();
+
+            // Until the refresh, the analyzer answers from the rows it has loaded.
+            Files.write(file, lines.subList(200, lines.size()), StandardOpenOption.APPEND);
+            assertSame(before, analyzer.getPtcpCountByInst());
+            assertTrue(analyzer.refresh());
+            assertEquals(new OnlineCoursesAnalyzer("resources/local.csv").getPtcpCountByInst(),
+                analyzer.getPtcpCountByInst());
+            assertEquals(new OnlineCoursesAnalyzer.CacheStats(1, 2, 0, 1, 1), analyzer.cacheStats());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void testPartitionedAndSnapshotAnswersAreCached() throws IOException {
+        List<String> lines = Files.readAllLines(Paths.get("resources", "local.csv"));
+        Path dir = Files.createTempDirectory("partitions");
+        Path snapshot = dir.resolve("courses.snapshot");
+        try {
+            Files.write(dir.resolve("a.csv"), lines.subList(0, 150));
+            List<String> rest = new ArrayList<>(List.of(lines.get(0)));
+            rest.addAll(lines.subList(150, lines.size()));
+            Files.write(dir.resolve("b.csv"), rest);
+            OnlineCoursesAnalyzer.materialized("resources/local.csv").writeSnapshot(snapshot.toString());
+
+            for (OnlineCoursesAnalyzer analyzer : List.of(
+                OnlineCoursesAnalyzer.partitioned(dir.resolve("*.csv").toString(), ForkJoinPool.commonPool()),
+                OnlineCoursesAnalyzer.partitioned(dir.toString(), ForkJoinPool.commonPool()),
+                OnlineCoursesAnalyzer.fromSnapshot(snapshot.toString()))) {
+                analyzer.cacheResults(10);
+                LocalAnswers.assertAllQueries(analyzer);
+                LocalAnswers.assertAllQueries(analyzer);
+                OnlineCoursesAnalyzer.CacheStats stats = analyzer.cacheStats();
+                assertEquals(stats.misses(), stats.hits());
+                assertEquals(0, stats.invalidations());
+            }
+        } finally {
+            try (Stream<Path> files = Files.list(dir)) {
+                for (Path file : files.toList()) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(dir);
+        }
+    }
+}
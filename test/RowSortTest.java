@@ -0,0 +1,58 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RowSortTest {
+
+    @Test
+    void testMatchesStableBoxedSort() {
+        Random random = new Random(5);
+        double[] specials = {Double.NaN, -0.0, 0.0, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, -1.5};
+        double[] values = new double[2000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(10) == 0 ? specials[random.nextInt(specials.length)] : random.nextInt(50) / 4.0;
+        }
+        for (boolean descending : new boolean[] {false, true}) {
+            Comparator<Integer> byValue = (r1, r2) -> descending ? Double.compare(values[r2], values[r1])
+                : Double.compare(values[r1], values[r2]);
+            Integer[] expected = new Integer[values.length];
+            for (int i = 0; i < expected.length; i++) {
+                expected[i] = i;
+            }
+            Arrays.sort(expected, byValue.thenComparing(Comparator.naturalOrder()));
+            assertArrayEquals(Arrays.stream(expected).mapToInt(Integer::intValue).toArray(),
+                RowSort.byValue(values, descending));
+
+            int[] rows = {900, 5, 31, 7, 1999, 40, 2};
+            int[] part = rows.clone();
+            RowSort.byValue(part, 2, 6, values, descending);
+            Integer[] middle = {31, 7, 1999, 40};
+            Arrays.sort(middle, byValue.thenComparing(Comparator.naturalOrder()));
+            assertArrayEquals(new int[] {900, 5, middle[0], middle[1], middle[2], middle[3], 2}, part);
+        }
+    }
+
+    @Test
+    void testStringCodesSortLikeTheirStrings() {
+        Random random = new Random(9);
+        String[] strings = new String[500];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = "Title " + random.nextInt(200);
+        }
+        int[] codes = new int[strings.length];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = codes.length - 1 - i;
+        }
+        Integer[] expected = new Integer[codes.length];
+        for (int i = 0; i < codes.length; i++) {
+            expected[i] = codes[i];
+        }
+        Arrays.sort(expected, Comparator.comparing(code -> strings[code]));
+        RowSort.byString(codes, strings);
+        assertArrayEquals(Arrays.stream(expected).mapToInt(Integer::intValue).toArray(), codes);
+    }
+}
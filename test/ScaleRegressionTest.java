@@ -0,0 +1,241 @@
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that loads and queries grow no faster than the row count across generated files of
+ * increasing size. Bytes allocated, which do not depend on timing, are compared wherever they
+ * can be counted; times are compared after warming up at the largest size, as the slope of log
+ * time over log rows across all sizes at once. Slow and memory hungry, so only run with
+ * {@code -Dscale.tests=true}; {@code -Dscale.rows=10000,100000,1000000} sets the sizes.
+ */
+@EnabledIfSystemProperty(named = "scale.tests", matches = "true")
+public class ScaleRegressionTest {
+
+    /** Largest slope of log measurement over log rows that still counts as linear; n log n stays well below. */
+    private static final double MAX_SLOPE = 1.5;
+    /** Measurements below these are mostly noise and are raised to them before fitting. */
+    private static final long FLOOR_NANOS = 1_000_000;
+    private static final long FLOOR_BYTES = 1 << 20;
+    private static final int WARMUP_RUNS = 2;
+    private static final int RUNS = 3;
+
+    private static final Map<String, Consumer<OnlineCoursesAnalyzer>> QUERIES = new LinkedHashMap<>();
+
+    static {
+        QUERIES.put("getPtcpCountByInst", OnlineCoursesAnalyzer::getPtcpCountByInst);
+        QUERIES.put("getPtcpCountByInstAndSubject", OnlineCoursesAnalyzer::getPtcpCountByInstAndSubject);
+        QUERIES.put("getCourseListOfInstructor", OnlineCoursesAnalyzer::getCourseListOfInstructor);
+        QUERIES.put("getCourses", analyzer -> analyzer.getCourses(10, "hours"));
+        QUERIES.put("searchCourses", analyzer -> analyzer.searchCourses("data", 20, 500));
+        QUERIES.put("recommendCourses", analyzer -> analyzer.recommendCourses(30, 1, 1));
+    }
+
+    @TempDir
+    static Path dir;
+    private static long[] rows;
+    private static Path[] files;
+    /** The rows of each file split into one file per institution. */
+    private static Path[] partitions;
+
+    /** Bytes the calling thread allocated in the last query, or summed over the phases of the last load. */
+    private static final class AllocationListener implements AnalyzerListener {
+
+        final AtomicLong query = new AtomicLong();
+        final AtomicLong load = new AtomicLong();
+
+        @Override
+        public void phaseCompleted(Phase phase, long nanos, long allocatedBytes) {
+            load.addAndGet(allocatedBytes);
+        }
+
+        @Override
+        public void queryCompleted(String query, long nanos, long allocatedBytes) {
+            this.query.set(allocatedBytes);
+        }
+    }
+
+    @BeforeAll
+    static void generate() throws IOException {
+        rows = Arrays.stream(System.getProperty("scale.rows", "10000,100000,1000000").split(","))
+            .mapToLong(n -> Long.parseLong(n.trim())).toArray();
+        files = new Path[rows.length];
+        partitions = new Path[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            files[i] = dir.resolve("courses-" + rows[i] + ".csv");
+            CourseCsvGenerator.generate(files[i], rows[i], 42);
+            partitions[i] = Files.createDirectory(dir.resolve("partitions-" + rows[i]));
+            splitByInstitution(files[i], partitions[i]);
+        }
+    }
+
+    private static void splitByInstitution(Path file, Path into) throws IOException {
+        Map<String, BufferedWriter> writers = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String header = reader.readLine();
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                String institution = line.substring(0, line.indexOf(','));
+                BufferedWriter writer = writers.get(institution);
+                if (writer == null) {
+                    writer = Files.newBufferedWriter(into.resolve(institution + ".csv"));
+                    writer.write(header);
+                    writer.newLine();
+                    writers.put(institution, writer);
+                }
+                writer.write(line);
+                writer.newLine();
+            }
+        } finally {
+            for (BufferedWriter writer : writers.values()) {
+                writer.close();
+            }
+        }
+    }
+
+    @Test
+    void testMaterializedLoadIsLinear() {
+        AllocationListener listener = new AllocationListener();
+        long[] nanos = new long[rows.length];
+        long[] allocated = new long[rows.length];
+        long[] retained = new long[rows.length];
+        OnlineCoursesAnalyzer.materialized(files[rows.length - 1].toString());
+        for (int i = 0; i < rows.length; i++) {
+            OnlineCoursesAnalyzer analyzer = null;
+            nanos[i] = Long.MAX_VALUE;
+            allocated[i] = Long.MAX_VALUE;
+            for (int run = 0; run < RUNS; run++) {
+                analyzer = null;
+                listener.load.set(0);
+                long start = System.nanoTime();
+                analyzer = OnlineCoursesAnalyzer.materialized(files[i].toString(), ForkJoinPool.commonPool(),
+                    listener);
+                nanos[i] = Math.min(nanos[i], System.nanoTime() - start);
+                allocated[i] = Math.min(allocated[i], listener.load.get());
+            }
+            analyzer.getPtcpCountByInst();
+            long used = usedHeap();
+            analyzer = null;
+            retained[i] = used - usedHeap();
+        }
+        assertSlope("materialized load allocation", allocated, FLOOR_BYTES);
+        assertSlope("materialized retained heap", retained, FLOOR_BYTES);
+        assertSlope("materialized load time", nanos, FLOOR_NANOS);
+    }
+
+    @Test
+    void testPartitionedLoadIsLinear() {
+        long[] nanos = new long[rows.length];
+        OnlineCoursesAnalyzer.partitioned(partitions[rows.length - 1].toString(), ForkJoinPool.commonPool());
+        for (int i = 0; i < rows.length; i++) {
+            nanos[i] = Long.MAX_VALUE;
+            for (int run = 0; run < RUNS; run++) {
+                long start = System.nanoTime();
+                OnlineCoursesAnalyzer.partitioned(partitions[i].toString(), ForkJoinPool.commonPool());
+                nanos[i] = Math.min(nanos[i], System.nanoTime() - start);
+            }
+        }
+        assertSlope("partitioned load time", nanos, FLOOR_NANOS);
+    }
+
+    @Test
+    void testMaterializedQueriesAreLinear() {
+        assertQueriesGrowLinearly("materialized", i -> OnlineCoursesAnalyzer.materialized(files[i].toString()));
+    }
+
+    @Test
+    void testRereadingQueriesAreLinear() {
+        assertQueriesGrowLinearly("re-reading", i -> new OnlineCoursesAnalyzer(files[i].toString()));
+    }
+
+    @Test
+    void testStreamingQueriesAreLinear() {
+        assertQueriesGrowLinearly("streaming",
+            i -> OnlineCoursesAnalyzer.streaming(files[i].toString(), 16 << 20));
+    }
+
+    @Test
+    void testParallelQueriesAreLinear() {
+        // Only the merge runs on the calling thread, so the allocation check covers just that.
+        assertQueriesGrowLinearly("parallel",
+            i -> OnlineCoursesAnalyzer.parallel(files[i].toString(), ForkJoinPool.commonPool()));
+    }
+
+    @Test
+    void testPartitionedQueriesAreLinear() {
+        assertQueriesGrowLinearly("partitioned",
+            i -> OnlineCoursesAnalyzer.partitioned(partitions[i].toString(), ForkJoinPool.commonPool()));
+    }
+
+    private static void assertQueriesGrowLinearly(String engine, IntFunction<OnlineCoursesAnalyzer> open) {
+        AllocationListener listener = new AllocationListener();
+        OnlineCoursesAnalyzer[] analyzers = new OnlineCoursesAnalyzer[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            analyzers[i] = open.apply(i);
+            analyzers[i].setListener(listener);
+        }
+        for (Map.Entry<String, Consumer<OnlineCoursesAnalyzer>> query : QUERIES.entrySet()) {
+            for (int run = 0; run < WARMUP_RUNS; run++) {
+                query.getValue().accept(analyzers[rows.length - 1]);
+            }
+            long[] nanos = new long[rows.length];
+            long[] allocated = new long[rows.length];
+            for (int i = 0; i < rows.length; i++) {
+                nanos[i] = Long.MAX_VALUE;
+                allocated[i] = Long.MAX_VALUE;
+                for (int run = 0; run < RUNS; run++) {
+                    long start = System.nanoTime();
+                    query.getValue().accept(analyzers[i]);
+                    nanos[i] = Math.min(nanos[i], System.nanoTime() - start);
+                    allocated[i] = Math.min(allocated[i], listener.query.get());
+                }
+            }
+            assertSlope(engine + " " + query.getKey() + " allocation", allocated, FLOOR_BYTES);
+            assertSlope(engine + " " + query.getKey() + " time", nanos, FLOOR_NANOS);
+        }
+    }
+
+    /** Fails when the least-squares slope of log {@code measured} over log rows exceeds {@link #MAX_SLOPE}. */
+    private static void assertSlope(String what, long[] measured, long floor) {
+        int n = rows.length;
+        double sumX = 0;
+        double sumY = 0;
+        double sumXX = 0;
+        double sumXY = 0;
+        for (int i = 0; i < n; i++) {
+            double x = Math.log(rows[i]);
+            double y = Math.log(Math.max(floor, measured[i]));
+            sumX += x;
+            sumY += y;
+            sumXX += x * x;
+            sumXY += x * y;
+        }
+        double slope = (n * sumXY - sumX * sumY) / (n * sumXX - sumX * sumX);
+        assertTrue(slope <= MAX_SLOPE, String.format("%s grows as rows^%.2f: measured %s at %s rows", what, slope,
+            Arrays.toString(measured), Arrays.toString(rows)));
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
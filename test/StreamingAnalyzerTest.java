@@ -0,0 +1,117 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StreamingAnalyzerTest {
+
+    @Test
+    void testStreamingMatchesLocalAnswers() {
+        LocalAnswers.assertAllQueries(OnlineCoursesAnalyzer.streaming("resources/local.csv", 64L << 20));
+    }
+
+    @Test
+    void testSpillingMatchesMaterialized() {
+        OnlineCoursesAnalyzer streaming = OnlineCoursesAnalyzer.streaming("resources/local.csv", 4096);
+        OnlineCoursesAnalyzer materialized = OnlineCoursesAnalyzer.materialized("resources/local.csv");
+        LocalAnswers.assertAllQueries(streaming);
+        assertEquals(materialized.getCourseListOfInstructor(), streaming.getCourseListOfInstructor());
+        assertEquals(materialized.getCourseListOfInstructor("Eric S. Lander"),
+            streaming.getCourseListOfInstructor("Eric S. Lander"));
+        for (int age = 10; age <= 70; age += 10) {
+            assertEquals(materialized.recommendCourses(age, 1, 0), streaming.recommendCourses(age, 1, 0));
+        }
+        for (CourseMetric metric : CourseMetric.values()) {
+            assertEquals(materialized.getCourses(30, metric.key), streaming.getCourses(30, metric.key));
+        }
+        assertEquals(materialized.searchCourses("a", 0, 10000), streaming.searchCourses("a", 0, 10000));
+    }
+
+    @Test
+    void testExternalSorterMergesManyRuns() throws IOException {
+        Path dir = Files.createTempDirectory("sorter");
+        try {
+            Random random = new Random(12);
+            List<Integer> values = new ArrayList<>();
+            List<Integer> sorted = new ArrayList<>();
+            try (ExternalSorter<Integer> sorter = new ExternalSorter<>(Integer::compare, INTS, 128 << 10, dir)) {
+                for (int i = 0; i < 20_000; i++) {
+                    int value = random.nextInt(5000);
+                    values.add(value);
+                    sorter.add(value);
+                }
+                assertTrue(sorter.spills() > 2);
+                sorter.forEachSorted(sorted::add);
+            }
+            values.sort(null);
+            assertEquals(values, sorted);
+            try (Stream<Path> left = Files.list(dir)) {
+                assertEquals(0, left.count());
+            }
+        } finally {
+            Files.delete(dir);
+        }
+    }
+
+    @Test
+    void testSmallBudgetBoundsTheMergeBuffers() throws IOException {
+        Path dir = Files.createTempDirectory("sorter");
+        try {
+            long budget = ExternalSorter.MIN_MEMORY_BUDGET;
+            List<Integer> sorted = new ArrayList<>();
+            try (ExternalSorter<Integer> sorter = new ExternalSorter<>(Integer::compare, INTS, budget, dir)) {
+                assertTrue(sorter.mergeBuffers() <= budget, sorter.mergeBuffers() + " > " + budget);
+                for (int i = 2000; i > 0; i--) {
+                    sorter.add(i);
+                }
+                assertTrue(sorter.spills() > 2);
+                sorter.forEachSorted(sorted::add);
+            }
+            assertEquals(IntStream.rangeClosed(1, 2000).boxed().collect(Collectors.toList()), sorted);
+            for (long large : new long[] {4096, 1 << 20, 64L << 20}) {
+                try (ExternalSorter<Integer> sorter = new ExternalSorter<>(Integer::compare, INTS, large, dir)) {
+                    assertTrue(sorter.mergeBuffers() <= large, sorter.mergeBuffers() + " > " + large);
+                }
+            }
+        } finally {
+            Files.delete(dir);
+        }
+    }
+
+    @Test
+    void testBudgetBelowTheMergeMinimumIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> OnlineCoursesAnalyzer.streaming("resources/local.csv", 0));
+        assertThrows(IllegalArgumentException.class,
+            () -> OnlineCoursesAnalyzer.streaming("resources/local.csv", ExternalSorter.MIN_MEMORY_BUDGET - 1));
+        assertThrows(IllegalArgumentException.class,
+            () -> new ExternalSorter<>(Integer::compare, INTS, ExternalSorter.MIN_MEMORY_BUDGET - 1, Path.of(".")));
+    }
+
+    private static final ExternalSorter.Codec<Integer> INTS = new ExternalSorter.Codec<>() {
+        @Override
+        public void write(DataOutput out, Integer value) throws IOException {
+            out.writeInt(value);
+        }
+
+        @Override
+        public Integer read(DataInput in) throws IOException {
+            return in.readInt();
+        }
+
+        @Override
+        public long bytes(Integer value) {
+            return 16;
+        }
+    };
+}
@@ -0,0 +1,92 @@
+import java.util.stream.IntStream;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link NumericKernels} on the incubating Vector API, at the widest width the CPU supports (8
+ * doubles with AVX-512, 4 with AVX2). Kept out of {@code src} so the analyzer builds without
+ * {@code --add-modules jdk.incubator.vector}; {@link NumericKernels#load} finds it by name.
+ * Comparisons and arithmetic are the scalar ones lane by lane, with no fused multiply-add, so
+ * results match {@link ScalarKernels} exactly.
+ */
+final class VectorKernels implements NumericKernels {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    static {
+        if (SPECIES.length() > 64 || Integer.bitCount(SPECIES.length()) != 1) {
+            throw new IllegalStateException("Unsupported vector width: " + SPECIES);
+        }
+    }
+
+    private static final DoubleVector ZERO = DoubleVector.zero(SPECIES);
+    /**
+     * {@code 2^lane} in every lane; summing the lanes a mask selects gives the mask as bits. On JDK
+     * 17 this compiles to vector instructions where {@code VectorMask.toLong} allocates.
+     */
+    private static final DoubleVector LANE_BITS = DoubleVector.fromArray(SPECIES,
+        IntStream.range(0, SPECIES.length()).mapToDouble(lane -> 1L << lane).toArray(), 0);
+
+    /**
+     * Lane counts are powers of two up to 64, checked when the class loads, so one vector's mask
+     * never straddles two words. Double vectors have at most 32 lanes (2048-bit SVE), so the lane
+     * sums stay exact.
+     */
+    @Override
+    public void atMost(double[] values, int from, int to, double max, long[] bits) {
+        int lanes = SPECIES.length();
+        for (int k = from; k < to; k += 64) {
+            long word = 0;
+            int end = Math.min(64, to - k);
+            int j = 0;
+            for (; j <= end - lanes; j += lanes) {
+                DoubleVector v = DoubleVector.fromArray(SPECIES, values, k + j);
+                VectorMask<Double> match = v.compare(VectorOperators.LE, max);
+                word |= (long) ZERO.blend(LANE_BITS, match).reduceLanes(VectorOperators.ADD) << j;
+            }
+            for (; j < end; j++) {
+                word |= (values[k + j] <= max ? 1L : 0L) << j;
+            }
+            bits[(k - from) >>> 6] = word;
+        }
+    }
+
+    @Override
+    public void atLeast(double[] values, int from, int to, double min, long[] bits) {
+        int lanes = SPECIES.length();
+        for (int k = from; k < to; k += 64) {
+            long word = 0;
+            int end = Math.min(64, to - k);
+            int j = 0;
+            for (; j <= end - lanes; j += lanes) {
+                DoubleVector v = DoubleVector.fromArray(SPECIES, values, k + j);
+                VectorMask<Double> match = v.compare(VectorOperators.GE, min);
+                word |= (long) ZERO.blend(LANE_BITS, match).reduceLanes(VectorOperators.ADD) << j;
+            }
+            for (; j < end; j++) {
+                word |= (values[k + j] >= min ? 1L : 0L) << j;
+            }
+            bits[(k - from) >>> 6] = word;
+        }
+    }
+
+    @Override
+    public void squaredDistances(double[] x, double[] y, double[] z, int from, int to, double px, double py,
+        double pz, double[] out) {
+        int i = from;
+        for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+            DoubleVector dx = DoubleVector.broadcast(SPECIES, px).sub(DoubleVector.fromArray(SPECIES, x, i));
+            DoubleVector dy = DoubleVector.broadcast(SPECIES, py).sub(DoubleVector.fromArray(SPECIES, y, i));
+            DoubleVector dz = DoubleVector.broadcast(SPECIES, pz).sub(DoubleVector.fromArray(SPECIES, z, i));
+            dx.mul(dx).add(dy.mul(dy)).add(dz.mul(dz)).intoArray(out, i - from);
+        }
+        for (; i < to; i++) {
+            double dx = px - x[i];
+            double dy = py - y[i];
+            double dz = pz - z[i];
+            out[i - from] = dx * dx + dy * dy + dz * dz;
+        }
+    }
+}